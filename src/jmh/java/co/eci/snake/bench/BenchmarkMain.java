@@ -0,0 +1,52 @@
+package co.eci.snake.bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Punto de entrada de benchmarks.jar: acepta las mismas opciones que JMH y
+ * añade siempre el perfilador de GC para reportar la tasa de asignación
+ * (gc.alloc.rate.norm = bytes asignados por operación). Las opciones
+ * informativas (-h, -l, -lp, -lprof, -lrf) se atienden como en el Main de JMH,
+ * sin correr nada.
+ */
+public final class BenchmarkMain {
+  private BenchmarkMain() {}
+
+  public static void main(String[] args) throws Exception {
+    CommandLineOptions cmd;
+    try {
+      cmd = new CommandLineOptions(args);
+    } catch (CommandLineOptionException e) {
+      System.err.println("Error parsing command line:");
+      System.err.println(" " + e.getMessage());
+      System.exit(1);
+      return;
+    }
+    if (cmd.shouldHelp()) {
+      cmd.showHelp();
+      return;
+    }
+    if (cmd.shouldListProfilers()) {
+      cmd.listProfilers();
+      return;
+    }
+    if (cmd.shouldListResultFormats()) {
+      cmd.listResultFormats();
+      return;
+    }
+    if (cmd.shouldList()) {
+      new Runner(cmd).list();
+      return;
+    }
+    if (cmd.shouldListWithParams()) {
+      new Runner(cmd).listWithParams(cmd);
+      return;
+    }
+    var opts = new OptionsBuilder().parent(cmd).addProfiler(GCProfiler.class).build();
+    new Runner(opts).run();
+  }
+}
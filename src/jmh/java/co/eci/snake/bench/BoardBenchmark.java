@@ -0,0 +1,106 @@
+package co.eci.snake.bench;
+
+import co.eci.snake.core.Board;
+import co.eci.snake.core.Direction;
+import co.eci.snake.core.Position;
+import co.eci.snake.core.Snake;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Camino caliente del tablero: Board.step, Board.plan y Board.randomEmpty, en
+ * un hilo y con varios hilos moviendo serpientes del mismo tablero.
+ *
+ * El tablero es de size x size salvo cuando las serpientes no caben sin
+ * solaparse; entonces crece lo justo (ver Worlds.board).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmark {
+
+  @Param({ "128", "1024" })
+  int size;
+
+  @Param({ "16", "256" })
+  int snakes;
+
+  @Param({ "8", "64" })
+  int length;
+
+  Board board;
+  List<Snake> list;
+  Snake[] array;
+  final AtomicInteger threadOffsets = new AtomicInteger();
+
+  @Setup(Level.Iteration)
+  public void setup() {
+    board = Worlds.board(size, snakes, length, 42L);
+    list = Worlds.populate(board, snakes, length);
+    array = list.toArray(new Snake[0]);
+  }
+
+  /**
+   * Cursor por hilo sobre las serpientes; cada hilo arranca en un desfase distinto.
+   */
+  @State(Scope.Thread)
+  public static class Cursor {
+    int next;
+    final SplittableRandom rnd = new SplittableRandom(7);
+
+    @Setup(Level.Iteration)
+    public void setup(BoardBenchmark bench) {
+      next = bench.threadOffsets.getAndIncrement() * 31;
+    }
+  }
+
+  @Benchmark
+  public Board.MoveResult step(Cursor c) {
+    return stepNext(c);
+  }
+
+  @Benchmark
+  @Threads(4)
+  public Board.MoveResult stepContended(Cursor c) {
+    return stepNext(c);
+  }
+
+  @Benchmark
+  public long plan(Cursor c) {
+    return board.plan(array[c.next++ % array.length]);
+  }
+
+  @Benchmark
+  public Position randomEmpty() {
+    return board.randomEmpty();
+  }
+
+  private Board.MoveResult stepNext(Cursor c) {
+    var snake = array[c.next++ % array.length];
+    var res = board.step(snake, list);
+    // Sin matar a la serpiente: un giro mantiene estable la carga entre iteraciones
+    if (res == Board.MoveResult.SNAKE_DIED || res == Board.MoveResult.HIT_OBSTACLE)
+      snake.turn(Direction.values()[c.rnd.nextInt(4)]);
+    return res;
+  }
+}
@@ -0,0 +1,129 @@
+package co.eci.snake.bench;
+
+import co.eci.snake.core.Board;
+import co.eci.snake.core.Snake;
+import co.eci.snake.core.WorldGenerator;
+import co.eci.snake.core.engine.LockstepEngine;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * La misma carrera en cada modelo de ejecución: una operación es una ronda en
+ * la que cada serpiente da un paso con Board.step (o el LockstepEngine da un
+ * tick), y la ronda termina cuando terminaron todos los pasos.
+ *
+ * <ul>
+ * <li>single: un bucle en el hilo del benchmark, sin concurrencia.</li>
+ * <li>platform: una tarea por serpiente en un pool fijo de hilos de plataforma,
+ * uno por núcleo.</li>
+ * <li>virtual: un hilo virtual por serpiente y ronda
+ * (Executors.newVirtualThreadPerTaskExecutor, como el juego). Los métodos
+ * synchronized de Snake y los monitores de FreeCells fijan el hilo a su
+ * portador mientras los tiene.</li>
+ * <li>lockstep: LockstepEngine sobre un ForkJoinPool de un hilo por núcleo
+ * (planificación en bloques y resolución en un hilo).</li>
+ * </ul>
+ *
+ * Las serpientes avanzan en carriles sin ítems (ver Worlds.populate), así
+ * ninguna muere ni crece y todas las rondas hacen el mismo trabajo. Los núcleos
+ * son los que ve la JVM del fork: ExecutorScaling repite la suite con
+ * -XX:ActiveProcessorCount y -Djdk.virtualThreadScheduler.parallelism de 1 a N
+ * y resume pasos/s, latencia de cola, eventos de fijado y memoria.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExecutorBenchmark {
+
+  private static final int LENGTH = 8;
+  private static final int WIDTH = 1024;
+
+  @Param({ "single", "platform", "virtual", "lockstep" })
+  String model;
+
+  @Param({ "10", "1000", "100000" })
+  int snakes;
+
+  Board board;
+  List<Snake> list;
+  Snake[] array;
+  ExecutorService executor;
+  ForkJoinPool pool;
+  LockstepEngine engine;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    // Un carril cada dos filas, con tantas serpientes por carril como quepan
+    int perRow = WIDTH / (LENGTH + 1);
+    int height = Math.max(16, 2 * ((snakes + perRow - 1) / perRow));
+    board = new WorldGenerator().mice(0).obstacles(0).turbo(0).teleportPairs(0)
+        .generate(WIDTH, height, 42L).board();
+    list = Worlds.populate(board, snakes, LENGTH);
+    array = list.toArray(new Snake[0]);
+    int cores = Runtime.getRuntime().availableProcessors();
+    switch (model) {
+      case "single" -> {
+      }
+      case "platform" -> executor = Executors.newFixedThreadPool(cores);
+      case "virtual" -> executor = Executors.newVirtualThreadPerTaskExecutor();
+      case "lockstep" -> {
+        pool = new ForkJoinPool(cores);
+        engine = new LockstepEngine(board, list, pool);
+        engine.recordMetrics(false);
+      }
+      default -> throw new IllegalArgumentException("Unknown model: " + model);
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    if (executor != null)
+      executor.close();
+    if (pool != null)
+      pool.close();
+  }
+
+  @Benchmark
+  public int round() throws InterruptedException {
+    switch (model) {
+      case "single" -> {
+        for (Snake s : array)
+          board.step(s, list);
+      }
+      case "lockstep" -> engine.tick();
+      default -> {
+        var done = new CountDownLatch(array.length);
+        for (Snake s : array) {
+          executor.execute(() -> {
+            board.step(s, list);
+            done.countDown();
+          });
+        }
+        done.await();
+      }
+    }
+    return array.length;
+  }
+}
@@ -0,0 +1,61 @@
+package co.eci.snake.bench;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+import jdk.jfr.consumer.RecordingStream;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.profile.InternalProfiler;
+import org.openjdk.jmh.results.AggregationPolicy;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.ScalarResult;
+
+/**
+ * Perfilador de JMH para comparar modelos de ejecución: por iteración cuenta
+ * los eventos jdk.VirtualThreadPinned de JFR (un hilo virtual que se bloqueó
+ * sin poder soltar su portador, sin umbral de duración) y el pico de heap usado
+ * (suma de los picos de los pools de heap). Corre dentro del fork.
+ */
+public final class ExecutorProfiler implements InternalProfiler {
+  private static final String PINNED = "jdk.VirtualThreadPinned";
+
+  private final LongAdder pinned = new LongAdder();
+  private final List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+      .filter(p -> p.getType() == MemoryType.HEAP)
+      .toList();
+  private RecordingStream events;
+
+  @Override
+  public String getDescription() {
+    return "Eventos de fijado de hilos virtuales (JFR) y pico de heap por iteración";
+  }
+
+  @Override
+  public void beforeIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams) {
+    pinned.reset();
+    heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+    events = new RecordingStream();
+    events.enable(PINNED).withThreshold(Duration.ZERO).withoutStackTrace();
+    events.onEvent(PINNED, e -> pinned.increment());
+    events.startAsync();
+  }
+
+  @Override
+  public List<Result> afterIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams,
+      IterationResult result) {
+    // stop() espera a que se entreguen los eventos ya registrados
+    events.stop();
+    events.close();
+    long peak = heapPools.stream().mapToLong(p -> p.getPeakUsage().getUsed()).sum();
+    return List.of(
+        new ScalarResult("pinned", pinned.sum(), "events", AggregationPolicy.SUM),
+        new ScalarResult("heap.peak", peak / (1024.0 * 1024), "MB", AggregationPolicy.MAX));
+  }
+}
@@ -0,0 +1,96 @@
+package co.eci.snake.bench;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeSet;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Corre ExecutorBenchmark con 1, 2, 4... hasta N núcleos (los de la máquina) y
+ * resume cada combinación de modelo, núcleos y serpientes en una tabla: pasos
+ * por segundo, latencia de la ronda (p50 y p99), eventos de fijado de hilos
+ * virtuales, pico de heap y bytes asignados por ronda.
+ *
+ * Cada número de núcleos es un fork aparte con -XX:ActiveProcessorCount=K (los
+ * pools de plataforma y ForkJoin se dimensionan con eso) y
+ * -Djdk.virtualThreadScheduler.parallelism=K (portadores de los hilos
+ * virtuales). Con más núcleos que los de la máquina los hilos se reparten la
+ * CPU, así que conviene no pasar de N.
+ *
+ * Uso: java -cp target/benchmarks.jar co.eci.snake.bench.ExecutorScaling
+ * [--cores=1,2,4] [opciones de JMH, por ejemplo -p snakes=1000 -p model=virtual]
+ */
+public final class ExecutorScaling {
+  private ExecutorScaling() {}
+
+  private record Row(String model, int cores, int snakes, double stepsPerSecond, double p50, double p99,
+      double pinned, double heapPeakMb, double bytesPerRound) {
+  }
+
+  public static void main(String[] args) throws Exception {
+    var cores = new TreeSet<Integer>();
+    var jmhArgs = new ArrayList<String>();
+    for (String arg : args) {
+      if (arg.startsWith("--cores=")) {
+        for (String c : arg.substring("--cores=".length()).split(","))
+          cores.add(Integer.parseInt(c.trim()));
+      } else {
+        jmhArgs.add(arg);
+      }
+    }
+    if (cores.isEmpty()) {
+      int n = Runtime.getRuntime().availableProcessors();
+      for (int c = 1; c < n; c <<= 1)
+        cores.add(c);
+      cores.add(n);
+    }
+
+    var cmd = new CommandLineOptions(jmhArgs.toArray(new String[0]));
+    var rows = new ArrayList<Row>();
+    for (int k : cores) {
+      var opts = new OptionsBuilder().parent(cmd)
+          .include(ExecutorBenchmark.class.getName() + ".round")
+          .jvmArgsAppend("-XX:ActiveProcessorCount=" + k, "-Djdk.virtualThreadScheduler.parallelism=" + k)
+          .addProfiler(GCProfiler.class)
+          .addProfiler(ExecutorProfiler.class)
+          .build();
+      for (RunResult run : new Runner(opts).run())
+        rows.add(row(run, k));
+    }
+    print(rows);
+  }
+
+  private static Row row(RunResult run, int cores) {
+    var params = run.getParams();
+    int snakes = Integer.parseInt(params.getParam("snakes"));
+    var stats = run.getPrimaryResult().getStatistics();
+    // La ronda se mide en microsegundos y cada ronda da un paso por serpiente
+    double mean = stats.getMean();
+    return new Row(params.getParam("model"), cores, snakes, snakes * 1e6 / mean,
+        stats.getPercentile(50), stats.getPercentile(99),
+        secondary(run, "pinned"), secondary(run, "heap.peak"), secondary(run, "gc.alloc.rate.norm"));
+  }
+
+  private static double secondary(RunResult run, String label) {
+    Result result = run.getSecondaryResults().get(label);
+    return result == null ? Double.NaN : result.getScore();
+  }
+
+  private static void print(List<Row> rows) {
+    rows.sort(Comparator.comparingInt(Row::snakes).thenComparing(Row::model).thenComparingInt(Row::cores));
+    System.out.println();
+    System.out.printf("%-9s %6s %9s %14s %12s %12s %9s %10s %14s%n", "modelo", "núcleos", "serpientes",
+        "pasos/s", "p50 (us)", "p99 (us)", "fijados", "heap (MB)", "bytes/ronda");
+    for (var r : rows) {
+      System.out.printf("%-9s %6d %9d %14.0f %12.1f %12.1f %9.0f %10.1f %14.0f%n", r.model(), r.cores(),
+          r.snakes(), r.stepsPerSecond(), r.p50(), r.p99(), r.pinned(), r.heapPeakMb(), r.bytesPerRound());
+    }
+  }
+}
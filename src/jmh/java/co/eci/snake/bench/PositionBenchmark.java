@@ -0,0 +1,40 @@
+package co.eci.snake.bench;
+
+import co.eci.snake.core.Position;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cálculo de la siguiente cabeza con wrap-around.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PositionBenchmark {
+
+  @Param({ "128", "1024" })
+  int size;
+
+  int x;
+
+  @Benchmark
+  public Position wrap() {
+    // Recorre el borde derecho para ejercitar también el caso que envuelve
+    x = (x + 1) % (size + 1);
+    return new Position(x, size - 1 + (x & 1)).wrap(size, size);
+  }
+}
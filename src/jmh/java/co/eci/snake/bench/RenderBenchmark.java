@@ -0,0 +1,98 @@
+package co.eci.snake.bench;
+
+import co.eci.snake.core.Snake;
+import co.eci.snake.core.engine.FrameExchange;
+import co.eci.snake.core.engine.WorldFrame;
+import co.eci.snake.ui.legacy.SnakeApp.GamePanel;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Costo de pintar GamePanel sobre una imagen en memoria (AWT headless, sin
+ * ventana): la actualización incremental del lienzo entre dos cuadros que
+ * difieren en un paso de cada serpiente, y el repintado completo del panel.
+ * Con size=1024 el mundo no cabe en la ventana de la cámara: el costo de
+ * pintar debe seguir al tamaño de la ventana y no al del mundo.
+ *
+ * El tablero es de size x size salvo cuando las serpientes no caben sin
+ * solaparse; entonces crece lo justo (ver Worlds.board).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class RenderBenchmark {
+
+  @Param({ "35", "128", "1024" })
+  int size;
+
+  @Param({ "16", "256" })
+  int snakes;
+
+  @Param({ "8", "64" })
+  int length;
+
+  GamePanel panel;
+  BufferedImage image;
+  Graphics2D graphics;
+  final WorldFrame[] frames = { new WorldFrame(), new WorldFrame() };
+  int next;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    var board = Worlds.board(size, snakes, length, 42L);
+    List<Snake> list = Worlds.populate(board, snakes, length);
+    frames[0].capture(board, list);
+    frames[0].indexTiles();
+    for (Snake s : list)
+      board.step(s, list);
+    frames[1].capture(board, list);
+    frames[1].indexTiles();
+
+    var exchange = new FrameExchange(true);
+    exchange.back().capture(board, list);
+    exchange.publish();
+    panel = new GamePanel(board, exchange);
+    var pref = panel.getPreferredSize();
+    panel.setSize(pref);
+    image = new BufferedImage(pref.width, pref.height, BufferedImage.TYPE_INT_RGB);
+    graphics = image.createGraphics();
+    panel.refresh();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    graphics.dispose();
+  }
+
+  @Benchmark
+  public GamePanel refresh() {
+    panel.refresh(frames[next ^= 1]);
+    return panel;
+  }
+
+  @Benchmark
+  public BufferedImage paint() {
+    panel.paint(graphics);
+    return image;
+  }
+}
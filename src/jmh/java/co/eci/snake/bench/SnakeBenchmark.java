@@ -0,0 +1,99 @@
+package co.eci.snake.bench;
+
+import co.eci.snake.core.Direction;
+import co.eci.snake.core.Position;
+import co.eci.snake.core.Snake;
+
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cuerpo de la serpiente: Snake.advance y Snake.snapshot por longitud, solos y
+ * con un escritor compitiendo contra varios lectores (como el renderizador).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SnakeBenchmark {
+
+  // Ancho virtual por el que avanza la serpiente (sin tablero asociado)
+  private static final int SPAN = 1 << 16;
+
+  @Param({ "8", "128", "1024" })
+  int length;
+
+  /**
+   * Serpiente de {@code length} segmentos y la columna de su cabeza.
+   */
+  public abstract static class Body {
+    Snake snake;
+    int x;
+
+    @Setup(Level.Iteration)
+    public void setup(SnakeBenchmark params) {
+      snake = Snake.of(0, 0, Direction.RIGHT);
+      Worlds.grow(snake, 0, 0, params.length, SPAN);
+      x = params.length - 1;
+    }
+
+    void advance() {
+      x = (x + 1) % SPAN;
+      snake.advance(new Position(x, 0), false);
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class Own extends Body {
+  }
+
+  @State(Scope.Group)
+  public static class Shared extends Body {
+  }
+
+  @Benchmark
+  public void advance(Own s) {
+    s.advance();
+  }
+
+  @Benchmark
+  public Deque<Position> snapshot(Own s) {
+    return s.snake.snapshot();
+  }
+
+  @Benchmark
+  public Position head(Own s) {
+    return s.snake.head();
+  }
+
+  @Benchmark
+  @Group("contended")
+  @GroupThreads(1)
+  public void contendedAdvance(Shared s) {
+    s.advance();
+  }
+
+  @Benchmark
+  @Group("contended")
+  @GroupThreads(3)
+  public Deque<Position> contendedSnapshot(Shared s) {
+    return s.snake.snapshot();
+  }
+}
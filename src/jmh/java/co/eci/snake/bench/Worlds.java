@@ -0,0 +1,61 @@
+package co.eci.snake.bench;
+
+import co.eci.snake.core.Board;
+import co.eci.snake.core.Direction;
+import co.eci.snake.core.Position;
+import co.eci.snake.core.Snake;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Construcción de mundos de prueba reproducibles para los benchmarks.
+ */
+final class Worlds {
+  private Worlds() {}
+
+  /**
+   * Tablero de size x size con la semilla dada, agrandado lo justo para que
+   * {@code snakes} serpientes de {@code length} segmentos quepan en populate():
+   * al menos length + 1 columnas y un carril cada dos filas.
+   */
+  static Board board(int size, int snakes, int length, long seed) {
+    int width = Math.max(size, length + 1);
+    int perRow = width / (length + 1);
+    int height = Math.max(size, 2 * ((snakes + perRow - 1) / perRow));
+    return new Board(width, height, seed);
+  }
+
+  /**
+   * Crea {@code count} serpientes de {@code length} segmentos en filas alternas
+   * del tablero, mirando a la derecha, y las registra en la grilla de ocupación.
+   *
+   * @throws IllegalArgumentException si las serpientes no caben sin solaparse
+   */
+  static List<Snake> populate(Board board, int count, int length) {
+    int perRow = Math.max(1, board.width() / (length + 1));
+    // Un carril cada dos filas; una serpiente más larga que la fila se pisa a sí misma
+    int capacity = length > board.width() ? 0 : perRow * (board.height() / 2);
+    if (count > capacity)
+      throw new IllegalArgumentException(count + " snakes of length " + length + " do not fit on a "
+          + board.width() + "x" + board.height() + " board (at most " + capacity + ")");
+    List<Snake> snakes = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      int y = 2 * (i / perRow);
+      int x = (i % perRow) * (length + 1);
+      var snake = Snake.of(x, y, Direction.RIGHT);
+      board.register(snake);
+      grow(snake, x, y, length, board.width());
+      snakes.add(snake);
+    }
+    return snakes;
+  }
+
+  /**
+   * Extiende la serpiente hacia la derecha hasta {@code length} segmentos.
+   */
+  static void grow(Snake snake, int x, int y, int length, int width) {
+    for (int k = 1; k < length; k++)
+      snake.advance(new Position((x + k) % width, y), true);
+  }
+}
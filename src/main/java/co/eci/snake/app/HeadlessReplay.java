@@ -0,0 +1,45 @@
+package co.eci.snake.app;
+
+import co.eci.snake.core.Snake;
+import co.eci.snake.replay.ReplayPlayer;
+
+import java.nio.file.Path;
+
+/**
+ * Reproduce una grabación sin interfaz, tan rápido como permita la CPU, y
+ * verifica que el mundo reproducido coincide tick a tick con el grabado.
+ *
+ * Uso: --headless --replay=ARCHIVO
+ */
+public final class HeadlessReplay {
+  private HeadlessReplay() {}
+
+  public static void main(String[] args) {
+    Path file = null;
+    for (String arg : args) {
+      if (arg.startsWith("--replay="))
+        file = Path.of(arg.substring("--replay=".length()));
+      else if (!arg.equals("--headless"))
+        throw new IllegalArgumentException("Unrecognized argument: " + arg);
+    }
+    if (file == null)
+      throw new IllegalArgumentException("Missing --replay=FILE");
+
+    var player = new ReplayPlayer(file);
+    long start = System.nanoTime();
+    int ticks = player.play(null, 0);
+    double seconds = (System.nanoTime() - start) / 1e9;
+
+    int alive = 0, longest = 0;
+    for (Snake s : player.snakes()) {
+      if (!s.isDead()) {
+        alive++;
+        longest = Math.max(longest, s.getLength());
+      }
+    }
+    System.out.printf("Reproducción %s: tablero %dx%d, %d serpientes, semilla %d%n", file,
+        player.board().width(), player.board().height(), player.snakes().size(), player.seed());
+    System.out.printf("Ticks: %d en %.3f s (%.0f ticks/s), sin divergencias%n", ticks, seconds, ticks / seconds);
+    System.out.printf("Serpientes vivas: %d, más larga: %d segmentos%n", alive, longest);
+  }
+}
@@ -0,0 +1,359 @@
+package co.eci.snake.app;
+
+import co.eci.snake.core.Board;
+import co.eci.snake.core.Board.MoveResult;
+import co.eci.snake.core.ChangeLog;
+import co.eci.snake.core.Checkpoint;
+import co.eci.snake.core.Direction;
+import co.eci.snake.core.DistanceField;
+import co.eci.snake.core.Snake;
+import co.eci.snake.core.WorldGenerator;
+import co.eci.snake.core.engine.LockstepEngine;
+import co.eci.snake.metrics.SimulationMetrics;
+import co.eci.snake.replay.ReplayWriter;
+import co.eci.snake.spectator.SpectatorServer;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Simulación sin interfaz gráfica ni pausas entre pasos: avanza el tablero con
+ * el LockstepEngine tan rápido como permita la CPU y reporta el rendimiento.
+ *
+ * Uso: --headless [--width=W] [--height=H] [--snakes=N] [--ticks=T] [--seed=S]
+ * [--record=ARCHIVO] [--restore=ARCHIVO] [--checkpoint=ARCHIVO] [--checkpoint-every=T]
+ * [--spectate=PUERTO] [--spectate-fps=F] [--events] [--autopilot] [--offheap]
+ * [--generate] [--mice=D] [--obstacles=D] [--turbo=D] [--teleports=N]
+ *
+ * Con --generate (o cualquier densidad) el mundo sale de un WorldGenerator en
+ * lugar de new Board(width, height, seed) y la colocación serpiente por serpiente.
+ */
+public final class HeadlessSimulation {
+
+  private final int width;
+  private final int height;
+  private final int snakeCount;
+  private final int ticks;
+  private final long seed;
+  // Grabación opcional de la carrera (null = sin grabar)
+  private Path record;
+  // Checkpoint desde el que se reanuda (null = mundo nuevo a partir de la semilla)
+  private Path restore;
+  // Checkpoint a escribir al final y, si every > 0, cada every ticks
+  private Path checkpoint;
+  private int checkpointEvery;
+  // Servidor de espectadores (puerto < 0 = sin servidor)
+  private int spectatePort = -1;
+  private int spectateFps = 30;
+  // Consumir el flujo de cambios del tablero y resumirlo al final
+  private boolean events;
+  // Dirigir las serpientes hacia la comida en lugar de girar al azar
+  private boolean autopilot;
+  // Dónde guarda el tablero su estado por celda
+  private Board.Storage storage = Board.Storage.HEAP;
+  // Generador del mundo nuevo (null = tablero clásico y salidas al azar)
+  private WorldGenerator generator;
+
+  public HeadlessSimulation(int width, int height, int snakeCount, int ticks, long seed) {
+    if (snakeCount <= 0 || ticks <= 0)
+      throw new IllegalArgumentException("snakes and ticks must be positive");
+    this.width = width;
+    this.height = height;
+    this.snakeCount = snakeCount;
+    this.ticks = ticks;
+    this.seed = seed;
+  }
+
+  /**
+   * Graba la carrera para reproducirla luego (ver ReplayPlayer).
+   */
+  public HeadlessSimulation recordTo(Path file) {
+    this.record = file;
+    return this;
+  }
+
+  /**
+   * Reanuda desde un checkpoint en lugar de generar el mundo; el ancho, el alto y
+   * el número de serpientes salen del checkpoint y la semilla solo afecta a los
+   * giros y reabastecimientos posteriores.
+   */
+  public HeadlessSimulation restoreFrom(Path file) {
+    this.restore = file;
+    return this;
+  }
+
+  /**
+   * Transmite la carrera a espectadores remotos (ver SpectatorServer).
+   */
+  public HeadlessSimulation spectate(int port, int fps) {
+    this.spectatePort = port;
+    this.spectateFps = fps;
+    return this;
+  }
+
+  /**
+   * Consume el flujo de cambios (ver ChangeLog) cada tick y reporta cuántos
+   * eventos de cada tipo hubo.
+   */
+  public HeadlessSimulation countEvents(boolean events) {
+    this.events = events;
+    return this;
+  }
+
+  /**
+   * Dirige las serpientes con un DistanceField compartido, recalculado una vez
+   * por tick, en lugar de los giros aleatorios.
+   */
+  public HeadlessSimulation autopilot(boolean autopilot) {
+    this.autopilot = autopilot;
+    return this;
+  }
+
+  /**
+   * Almacenamiento del estado por celda del tablero nuevo (ver Board.Storage).
+   */
+  public HeadlessSimulation storage(Board.Storage storage) {
+    this.storage = storage;
+    return this;
+  }
+
+  /**
+   * Genera el mundo nuevo con el generador dado (densidades, teleports y salidas
+   * sin solaparse); las serpientes son las de esta simulación.
+   */
+  public HeadlessSimulation generateWith(WorldGenerator generator) {
+    this.generator = generator;
+    return this;
+  }
+
+  /**
+   * Escribe un checkpoint al terminar y, si every > 0, cada every ticks.
+   */
+  public HeadlessSimulation checkpointTo(Path file, int every) {
+    this.checkpoint = file;
+    this.checkpointEvery = every;
+    return this;
+  }
+
+  public static void main(String[] args) {
+    int width = 100, height = 100, snakes = 50, ticks = 10_000;
+    long seed = 42L;
+    Path record = null, restore = null, checkpoint = null;
+    int checkpointEvery = 0, spectatePort = -1, spectateFps = 30;
+    boolean events = false, autopilot = false, offHeap = false, generate = false;
+    var generator = new WorldGenerator();
+    for (String arg : args) {
+      if (arg.equals("--headless"))
+        continue;
+      if (arg.equals("--events")) {
+        events = true;
+        continue;
+      }
+      if (arg.equals("--autopilot")) {
+        autopilot = true;
+        continue;
+      }
+      if (arg.equals("--offheap")) {
+        offHeap = true;
+        continue;
+      }
+      if (arg.equals("--generate")) {
+        generate = true;
+        continue;
+      }
+      int eq = arg.indexOf('=');
+      if (!arg.startsWith("--") || eq < 0)
+        throw new IllegalArgumentException("Unrecognized argument: " + arg);
+      String key = arg.substring(2, eq);
+      String value = arg.substring(eq + 1);
+      switch (key) {
+        case "width" -> width = Integer.parseInt(value);
+        case "height" -> height = Integer.parseInt(value);
+        case "snakes" -> snakes = Integer.parseInt(value);
+        case "ticks" -> ticks = Integer.parseInt(value);
+        case "seed" -> seed = Long.parseLong(value);
+        case "record" -> record = Path.of(value);
+        case "restore" -> restore = Path.of(value);
+        case "checkpoint" -> checkpoint = Path.of(value);
+        case "checkpoint-every" -> checkpointEvery = Integer.parseInt(value);
+        case "spectate" -> spectatePort = Integer.parseInt(value);
+        case "spectate-fps" -> spectateFps = Integer.parseInt(value);
+        case "mice" -> {
+          generator.mice(Double.parseDouble(value));
+          generate = true;
+        }
+        case "obstacles" -> {
+          generator.obstacles(Double.parseDouble(value));
+          generate = true;
+        }
+        case "turbo" -> {
+          generator.turbo(Double.parseDouble(value));
+          generate = true;
+        }
+        case "teleports" -> {
+          generator.teleportPairs(Integer.parseInt(value));
+          generate = true;
+        }
+        default -> throw new IllegalArgumentException("Unknown option: --" + key);
+      }
+    }
+    new HeadlessSimulation(width, height, snakes, ticks, seed)
+        .recordTo(record)
+        .restoreFrom(restore)
+        .checkpointTo(checkpoint, checkpointEvery)
+        .spectate(spectatePort, spectateFps)
+        .countEvents(events)
+        .autopilot(autopilot)
+        .storage(offHeap ? Board.Storage.OFF_HEAP : Board.Storage.HEAP)
+        .generateWith(generate ? generator : null)
+        .run();
+  }
+
+  /**
+   * Ejecuta la simulación completa e imprime rendimiento y estadísticas finales.
+   */
+  public void run() {
+    if (record != null && restore != null)
+      throw new IllegalArgumentException("A restored world cannot be recorded: replays start from a seed");
+    if (record != null && generator != null)
+      throw new IllegalArgumentException("A generated world cannot be recorded: replays rebuild the classic seeded board");
+    SimulationMetrics.registerMBean();
+    var rnd = new SplittableRandom(seed);
+    var dirs = Direction.values();
+    Board board;
+    List<Snake> snakes;
+    if (restore != null) {
+      long t0 = System.nanoTime();
+      var restored = Checkpoint.load(restore, seed, storage);
+      board = restored.board();
+      snakes = restored.snakes();
+      System.out.printf("Restaurado %s en %.3f s%n", restore, (System.nanoTime() - t0) / 1e9);
+    } else if (generator != null) {
+      long t0 = System.nanoTime();
+      var world = generator.snakes(snakeCount).generate(width, height, seed, storage);
+      board = world.board();
+      snakes = new ArrayList<>(world.snakes());
+      System.out.printf("Mundo generado en %.1f ms: %d ratones, %d obstáculos, %d turbos, %d teleports%n",
+          (System.nanoTime() - t0) / 1e6, board.mice().size(), board.obstacles().size(), board.turbo().size(),
+          board.teleports().size() / 2);
+    } else {
+      board = new Board(width, height, seed, storage);
+      snakes = new ArrayList<>(snakeCount);
+      for (int i = 0; i < snakeCount; i++) {
+        int x, y;
+        int guard = 0;
+        // Posiciones iniciales con la misma semilla, evitando celdas ya ocupadas
+        do {
+          x = rnd.nextInt(width);
+          y = rnd.nextInt(height);
+        } while (board.occupant(x, y) != 0 && ++guard < width * height);
+        var snake = Snake.of(x, y, dirs[rnd.nextInt(dirs.length)]);
+        board.register(snake);
+        snakes.add(snake);
+      }
+    }
+
+    var engine = new LockstepEngine(board, snakes);
+    var recorder = record != null ? ReplayWriter.create(record, board, seed, snakes) : null;
+    if (recorder != null)
+      engine.record(recorder);
+    if (autopilot)
+      engine.autopilot(new DistanceField(board));
+    SpectatorServer spectators = null;
+    if (spectatePort >= 0) {
+      spectators = new SpectatorServer(spectatePort, spectateFps).start();
+      // El motor captura a la misma frecuencia con la que el servidor envía
+      engine.publishFrames(spectators.frames(), 1_000_000_000L / spectateFps);
+      System.out.printf("Espectadores en el puerto %d%n", spectators.port());
+    }
+    ChangeLog changes = events ? board.changes(1 << 16) : null;
+    ChangeLog.Cursor cursor = changes != null ? changes.cursor() : null;
+    long[] eventBuffer = new long[4096];
+    long[] eventCounts = new long[ChangeLog.Type.values().length];
+    long steps = 0;
+    int miceEaten = 0;
+    int firstDeathTick = -1;
+    int firstDeadLength = 0;
+    int alive = (int) snakes.stream().filter(s -> !s.isDead()).count();
+
+    long start = System.nanoTime();
+    int tick = 0;
+    while (tick < ticks && alive > 0) {
+      // Giros aleatorios con la misma política que SnakeRunner, pero reproducibles
+      for (Snake s : snakes) {
+        if (!autopilot && !s.isDead() && rnd.nextDouble() < 0.10)
+          s.turn(dirs[rnd.nextInt(dirs.length)]);
+      }
+      MoveResult[] results = engine.tick();
+      tick++;
+      for (int i = 0; i < results.length; i++) {
+        var res = results[i];
+        if (res == null)
+          continue;
+        switch (res) {
+          case SNAKE_DIED -> {
+            alive--;
+            if (firstDeathTick < 0) {
+              firstDeathTick = tick;
+              firstDeadLength = snakes.get(i).getLength();
+            }
+          }
+          case HIT_OBSTACLE -> snakes.get(i).turn(dirs[rnd.nextInt(dirs.length)]);
+          case ATE_MOUSE -> {
+            miceEaten++;
+            steps++;
+          }
+          default -> steps++;
+        }
+      }
+      if (changes != null) {
+        int n;
+        while ((n = changes.read(cursor, eventBuffer)) != 0) {
+          for (int k = 0; k < n; k++)
+            eventCounts[ChangeLog.type(eventBuffer[k]).ordinal()]++;
+        }
+      }
+      if (checkpoint != null && checkpointEvery > 0 && tick % checkpointEvery == 0)
+        Checkpoint.save(checkpoint, board, snakes);
+    }
+    double seconds = (System.nanoTime() - start) / 1e9;
+    if (recorder != null)
+      recorder.finish(tick);
+    if (checkpoint != null)
+      Checkpoint.save(checkpoint, board, snakes);
+    if (spectators != null)
+      spectators.close();
+
+    int longest = snakes.stream().filter(s -> !s.isDead()).mapToInt(Snake::getLength).max().orElse(0);
+    System.out.printf("Tablero %dx%d, %d serpientes, semilla %d%n", board.width(), board.height(), snakes.size(), seed);
+    if (board.storage() == Board.Storage.OFF_HEAP)
+      System.out.printf("Estado por celda fuera del heap: %.1f MiB%n", board.offHeapBytes() / (1024.0 * 1024));
+    System.out.printf("Ticks: %d en %.3f s (%.0f ticks/s)%n", tick, seconds, tick / seconds);
+    System.out.printf("Pasos: %d (%.0f pasos/s)%n", steps, steps / seconds);
+    System.out.printf("Serpientes vivas: %d, más larga: %d segmentos%n", alive, longest);
+    System.out.printf("Ratones comidos: %d%n", miceEaten);
+    var latency = SimulationMetrics.get().stepLatency();
+    System.out.printf("Latencia por paso (promedio por tick): p50 %.2f us, p99 %.2f us, máx %.2f us%n",
+        latency.percentile(0.50) / 1e3, latency.percentile(0.99) / 1e3, latency.max() / 1e3);
+    if (recorder != null)
+      System.out.printf("Grabación: %s%n", record);
+    if (checkpoint != null)
+      System.out.printf("Checkpoint: %s%n", checkpoint);
+    if (spectators != null)
+      System.out.printf("Espectadores: %d conectados, %d cuadros, %d mensajes, %d descartados, %.1f MiB%n",
+          spectators.clientCount(), spectators.framesEncoded(), spectators.messagesSent(),
+          spectators.framesDropped(), spectators.bytesSent() / 1048576.0);
+    if (changes != null) {
+      var sb = new StringBuilder("Eventos:");
+      for (var type : ChangeLog.Type.values())
+        sb.append(' ').append(type).append('=').append(eventCounts[type.ordinal()]);
+      System.out.println(sb.append(", lecturas perdidas: ").append(cursor.lost()));
+    }
+    if (firstDeathTick >= 0)
+      System.out.printf("Primera muerte en el tick %d (medía %d segmentos)%n", firstDeathTick, firstDeadLength);
+    else
+      System.out.println("Ninguna serpiente murió.");
+  }
+}
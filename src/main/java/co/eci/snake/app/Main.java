@@ -1,10 +1,42 @@
 package co.eci.snake.app;
 
+import co.eci.snake.ui.legacy.ReplayApp;
 import co.eci.snake.ui.legacy.SnakeApp;
 
+import java.nio.file.Path;
+import java.util.Arrays;
+
 public final class Main {
   private Main() {}
   public static void main(String[] args) {
+    var argList = Arrays.asList(args);
+    boolean headless = argList.contains("--headless");
+    var replay = argList.stream().filter(a -> a.startsWith("--replay=")).findFirst();
+    // --replay=ARCHIVO reproduce una grabación (ver HeadlessReplay y ReplayApp)
+    if (replay.isPresent()) {
+      if (headless) {
+        HeadlessReplay.main(args);
+      } else {
+        int tps = argList.stream().filter(a -> a.startsWith("--tps="))
+            .mapToInt(a -> Integer.parseInt(a.substring("--tps=".length()))).findFirst().orElse(60);
+        ReplayApp.launch(Path.of(replay.get().substring("--replay=".length())), tps);
+      }
+      return;
+    }
+    // --tournament corre muchas carreras en paralelo (ver Tournament)
+    if (argList.contains("--tournament")) {
+      try {
+        Tournament.main(args);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      return;
+    }
+    // --headless ejecuta la simulación sin Swing (ver HeadlessSimulation)
+    if (headless) {
+      HeadlessSimulation.main(args);
+      return;
+    }
     SnakeApp.launch();
   }
 }
@@ -0,0 +1,353 @@
+package co.eci.snake.app;
+
+import co.eci.snake.core.Board;
+import co.eci.snake.core.Board.MoveResult;
+import co.eci.snake.core.Direction;
+import co.eci.snake.core.DistanceField;
+import co.eci.snake.core.Snake;
+import co.eci.snake.core.engine.LockstepEngine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Torneo: corre miles de carreras independientes en paralelo y agrega sus
+ * resultados (primera muerte, serpiente más larga, ratones comidos y victorias
+ * por posición de salida) mientras terminan.
+ *
+ * Cada trabajador es un hilo de plataforma con su propio tablero, sus propias
+ * serpientes y su propio LockstepEngine, que reinicia entre carreras
+ * (Board.reset, Snake.reset y LockstepEngine.reset) en lugar de asignar un
+ * mundo nuevo. Los trabajadores no
+ * comparten estado: solo toman el número de la siguiente carrera de un contador
+ * y entregan un resultado por carrera a la cola que agrega el hilo principal.
+ * Si una carrera lanza una excepción, el torneo cancela a los demás
+ * trabajadores y la propaga en lugar de quedarse esperando.
+ * La semilla de cada carrera depende solo de la semilla base y de su número, así
+ * el torneo es reproducible con cualquier número de trabajadores.
+ *
+ * Uso: --tournament [--races=N] [--workers=K] [--width=W] [--height=H]
+ * [--snakes=S] [--ticks=T] [--seed=SEED] [--autopilot]
+ */
+public final class Tournament {
+  // Mezcla de la semilla base con el número de carrera (razón áurea de 64 bits)
+  private static final long GOLDEN = 0x9E3779B97F4A7C15L;
+
+  private final int races;
+  private final int workers;
+  private final int width;
+  private final int height;
+  private final int snakeCount;
+  private final int ticks;
+  private final long seed;
+  private boolean autopilot;
+
+  private final AtomicInteger nextRace = new AtomicInteger();
+  private final BlockingQueue<RaceResult> finished = new LinkedBlockingQueue<>();
+
+  /**
+   * Resultado de una carrera. Las posiciones son índices de salida (0..snakes-1).
+   *
+   * @param firstDeathTick tick de la primera muerte, o -1 si nadie murió
+   * @param winner         la que sobrevivió más tiempo; entre empatadas, la más
+   *                       larga y luego la de menor posición
+   */
+  public record RaceResult(int race, int ticks, int firstDeathTick, int firstDead, int longest,
+      int winner, int miceEaten) {
+  }
+
+  public Tournament(int races, int workers, int width, int height, int snakeCount, int ticks, long seed) {
+    if (races <= 0 || workers <= 0 || snakeCount <= 0 || ticks <= 0)
+      throw new IllegalArgumentException("races, workers, snakes and ticks must be positive");
+    this.races = races;
+    this.workers = workers;
+    this.width = width;
+    this.height = height;
+    this.snakeCount = snakeCount;
+    this.ticks = ticks;
+    this.seed = seed;
+  }
+
+  /**
+   * Dirige las serpientes con un DistanceField por trabajador en lugar de giros
+   * aleatorios.
+   */
+  public Tournament autopilot(boolean autopilot) {
+    this.autopilot = autopilot;
+    return this;
+  }
+
+  public static void main(String[] args) throws InterruptedException {
+    int races = 10_000, workers = Runtime.getRuntime().availableProcessors();
+    int width = 60, height = 60, snakes = 8, ticks = 2_000;
+    long seed = 42L;
+    boolean autopilot = false;
+    for (String arg : args) {
+      if (arg.equals("--tournament"))
+        continue;
+      if (arg.equals("--autopilot")) {
+        autopilot = true;
+        continue;
+      }
+      int eq = arg.indexOf('=');
+      if (!arg.startsWith("--") || eq < 0)
+        throw new IllegalArgumentException("Unrecognized argument: " + arg);
+      String key = arg.substring(2, eq);
+      String value = arg.substring(eq + 1);
+      switch (key) {
+        case "races" -> races = Integer.parseInt(value);
+        case "workers" -> workers = Integer.parseInt(value);
+        case "width" -> width = Integer.parseInt(value);
+        case "height" -> height = Integer.parseInt(value);
+        case "snakes" -> snakes = Integer.parseInt(value);
+        case "ticks" -> ticks = Integer.parseInt(value);
+        case "seed" -> seed = Long.parseLong(value);
+        default -> throw new IllegalArgumentException("Unknown option: --" + key);
+      }
+    }
+    new Tournament(races, workers, width, height, snakes, ticks, seed).autopilot(autopilot).run();
+  }
+
+  /**
+   * Corre el torneo completo; imprime el agregado cada segundo y al final.
+   */
+  public void run() throws InterruptedException {
+    System.out.printf("Torneo: %d carreras, %d trabajadores, tablero %dx%d, %d serpientes, %d ticks, semilla %d%n",
+        races, workers, width, height, snakeCount, ticks, seed);
+    var threads = Thread.ofPlatform().daemon().name("tournament-", 0).factory();
+    var futures = new ArrayList<Future<?>>(workers);
+    try (var executor = Executors.newFixedThreadPool(workers, threads)) {
+      for (int w = 0; w < workers; w++)
+        futures.add(executor.submit(new Worker()));
+      aggregate(futures, System.nanoTime());
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("A tournament worker failed", e.getCause());
+    }
+  }
+
+  // Agrega resultados hasta completar las carreras; si un trabajador falla, cancela
+  // a los demás y lanza su error en lugar de esperar resultados que no llegarán
+  private void aggregate(List<Future<?>> futures, long start) throws InterruptedException, ExecutionException {
+    var stats = new Stats(snakeCount);
+    long nextReport = start + 1_000_000_000L;
+    while (stats.races < races) {
+      for (var future : futures) {
+        if (future.state() == Future.State.FAILED) {
+          futures.forEach(f -> f.cancel(true));
+          future.get();
+        }
+      }
+      var result = finished.poll(100, TimeUnit.MILLISECONDS);
+      if (result != null) {
+        stats.add(result);
+        // Vaciar lo que haya llegado sin esperar
+        while ((result = finished.poll()) != null)
+          stats.add(result);
+      }
+      long now = System.nanoTime();
+      if (now >= nextReport) {
+        stats.print((now - start) / 1e9, false);
+        nextReport += 1_000_000_000L;
+      }
+    }
+    for (var future : futures)
+      future.get();
+    stats.print((System.nanoTime() - start) / 1e9, true);
+  }
+
+  // Un hilo con su propio mundo reutilizable; corre carreras hasta agotar el contador
+  private final class Worker implements Runnable {
+    private final Board board = new Board(width, height, 0L);
+    private final List<Snake> snakes = new ArrayList<>(snakeCount);
+    private final LockstepEngine engine = new LockstepEngine(board, List.of());
+    private final int[] deathTick = new int[snakeCount];
+    private final Direction[] dirs = Direction.values();
+
+    Worker() {
+      // Las mismas serpientes (y sus ids) en todas las carreras del trabajador
+      for (int i = 0; i < snakeCount; i++)
+        snakes.add(Snake.of(0, 0, Direction.UP));
+      engine.recordMetrics(false);
+      if (autopilot)
+        engine.autopilot(new DistanceField(board));
+    }
+
+    @Override
+    public void run() {
+      int race;
+      while ((race = nextRace.getAndIncrement()) < races && !Thread.currentThread().isInterrupted())
+        finished.add(race(race));
+    }
+
+    private RaceResult race(int race) {
+      long raceSeed = seed ^ (race * GOLDEN);
+      var rnd = new SplittableRandom(raceSeed);
+      board.reset(raceSeed);
+      for (int i = 0; i < snakeCount; i++) {
+        int x, y;
+        int guard = 0;
+        // Mismas reglas de salida que HeadlessSimulation
+        do {
+          x = rnd.nextInt(width);
+          y = rnd.nextInt(height);
+        } while (board.occupant(x, y) != 0 && ++guard < width * height);
+        var snake = snakes.get(i);
+        snake.reset(x, y, dirs[rnd.nextInt(dirs.length)]);
+        // Registrada ya, para que las siguientes vean su celda ocupada; bind() no
+        // la vuelve a registrar
+        board.register(snake);
+      }
+      engine.reset(snakes);
+      Arrays.fill(deathTick, Integer.MAX_VALUE);
+
+      int alive = snakeCount;
+      int miceEaten = 0;
+      int firstDeathTick = -1, firstDead = -1;
+      int tick = 0;
+      while (tick < ticks && alive > 0) {
+        if (!autopilot) {
+          for (Snake s : snakes) {
+            if (!s.isDead() && rnd.nextDouble() < 0.10)
+              s.turn(dirs[rnd.nextInt(dirs.length)]);
+          }
+        }
+        MoveResult[] results = engine.tick();
+        tick++;
+        for (int i = 0; i < results.length; i++) {
+          var res = results[i];
+          if (res == null)
+            continue;
+          switch (res) {
+            case SNAKE_DIED -> {
+              alive--;
+              deathTick[i] = tick;
+              if (firstDeathTick < 0) {
+                firstDeathTick = tick;
+                firstDead = i;
+              }
+            }
+            case HIT_OBSTACLE -> snakes.get(i).turn(dirs[rnd.nextInt(dirs.length)]);
+            case ATE_MOUSE -> miceEaten++;
+            default -> {
+            }
+          }
+        }
+      }
+
+      int longest = 0, winner = 0;
+      for (int i = 0; i < snakeCount; i++) {
+        int length = snakes.get(i).getLength();
+        longest = Math.max(longest, length);
+        int best = snakes.get(winner).getLength();
+        if (deathTick[i] > deathTick[winner] || (deathTick[i] == deathTick[winner] && length > best))
+          winner = i;
+      }
+      return new RaceResult(race, tick, firstDeathTick, firstDead, longest, winner, miceEaten);
+    }
+  }
+
+  // Agregado incremental; solo lo usa el hilo principal
+  private static final class Stats {
+    int races;
+    long ticks;
+    final IntHistogram firstDeath = new IntHistogram();
+    final IntHistogram longest = new IntHistogram();
+    final IntHistogram mice = new IntHistogram();
+    final long[] wins;
+    final long[] firstDeaths;
+    int lastRaces;
+    double lastSeconds;
+
+    Stats(int snakes) {
+      wins = new long[snakes];
+      firstDeaths = new long[snakes];
+    }
+
+    void add(RaceResult r) {
+      races++;
+      ticks += r.ticks();
+      if (r.firstDeathTick() >= 0) {
+        firstDeath.record(r.firstDeathTick());
+        firstDeaths[r.firstDead()]++;
+      }
+      longest.record(r.longest());
+      mice.record(r.miceEaten());
+      wins[r.winner()]++;
+    }
+
+    void print(double seconds, boolean last) {
+      double rate = (races - lastRaces) / Math.max(1e-9, seconds - lastSeconds);
+      lastRaces = races;
+      lastSeconds = seconds;
+      if (!last) {
+        System.out.printf("t=%.0fs carreras=%d (%.0f/s) primera muerte p50=%d más larga p50=%d ratones p50=%d%n",
+            seconds, races, rate, firstDeath.percentile(0.5), longest.percentile(0.5), mice.percentile(0.5));
+        return;
+      }
+      System.out.printf("Carreras: %d en %.2f s (%.0f carreras/s, %.0f ticks/s)%n",
+          races, seconds, races / seconds, ticks / seconds);
+      System.out.printf("Primera muerte (tick): p50 %d, p90 %d, p99 %d (%d carreras sin muertes)%n",
+          firstDeath.percentile(0.5), firstDeath.percentile(0.9), firstDeath.percentile(0.99),
+          races - firstDeath.count());
+      System.out.printf("Más larga (segmentos): p50 %d, p90 %d, p99 %d, máx %d%n",
+          longest.percentile(0.5), longest.percentile(0.9), longest.percentile(0.99), longest.max());
+      System.out.printf("Ratones por carrera: media %.2f, p50 %d, p99 %d%n",
+          mice.mean(), mice.percentile(0.5), mice.percentile(0.99));
+      var sb = new StringBuilder("Victorias / primeras muertes por posición de salida:");
+      for (int i = 0; i < wins.length; i++)
+        sb.append(String.format(" %d=%.1f%%/%.1f%%", i, 100.0 * wins[i] / races, 100.0 * firstDeaths[i] / races));
+      System.out.println(sb);
+    }
+  }
+
+  // Histograma exacto de enteros no negativos pequeños (ticks, longitudes)
+  private static final class IntHistogram {
+    private long[] counts = new long[64];
+    private long count;
+    private long sum;
+    private int max;
+
+    void record(int value) {
+      if (value >= counts.length)
+        counts = Arrays.copyOf(counts, Integer.highestOneBit(value) << 1);
+      counts[value]++;
+      count++;
+      sum += value;
+      max = Math.max(max, value);
+    }
+
+    long count() {
+      return count;
+    }
+
+    int max() {
+      return max;
+    }
+
+    double mean() {
+      return count == 0 ? 0 : (double) sum / count;
+    }
+
+    int percentile(double q) {
+      if (count == 0)
+        return 0;
+      long rank = (long) Math.ceil(q * count);
+      long seen = 0;
+      for (int v = 0; v <= max; v++) {
+        seen += counts[v];
+        if (seen >= Math.max(1, rank))
+          return v;
+      }
+      return max;
+    }
+  }
+}
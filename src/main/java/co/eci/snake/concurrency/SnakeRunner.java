@@ -3,14 +3,20 @@ package co.eci.snake.concurrency;
 import co.eci.snake.core.Board;
 import co.eci.snake.core.Snake;
 import co.eci.snake.core.Direction;
+import co.eci.snake.core.DistanceField;
+import co.eci.snake.core.sync.PauseController;
+import co.eci.snake.metrics.SimulationMetrics;
+import co.eci.snake.metrics.StepEvent;
 import java.util.List;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.random.RandomGenerator;
 
 /**
  * Gestiona la lógica de movimiento y autonomía de cada serpiente en un hilo
  * independiente.
- * Implementa el control de pausa mediante wait/notify y el registro de
- * colisiones.
+ * La pausa se coordina con el PauseController compartido: cada paso va entre
+ * beginStep() y endStep() para que pausar espere a los pasos en curso.
  */
 public final class SnakeRunner implements Runnable {
   private final Snake snake;
@@ -19,76 +25,131 @@ public final class SnakeRunner implements Runnable {
   private final int baseSleepMs = 80;
   private final int turboSleepMs = 40;
   private int turboTicks = 0;
-  private final Object monitor = new Object();
+  private final PauseController pauseController;
+  // Fuente de aleatoriedad de los giros (null = ThreadLocalRandom, no reproducible)
+  private final RandomGenerator random;
+  // Piloto automático compartido (null = giros aleatorios)
+  private final DistanceField autopilot;
 
-  // REQUISITOS DEL LABORATORIO: Monitor global y estados compartidos
-  public static final Object gameMonitor = new Object();
-  public static volatile boolean isPaused = false;
-  public static volatile Snake firstDead = null; // Estadística: Peor serpiente
+  private final SimulationMetrics metrics = SimulationMetrics.get();
+  private final LongAdder stepCounter;
 
-  public SnakeRunner(Snake snake, Board board, List<Snake> snakes) {
+  public SnakeRunner(Snake snake, Board board, List<Snake> snakes, PauseController pauseController) {
+    this(snake, board, snakes, pauseController, null);
+  }
+
+  /**
+   * @param random fuente de los giros aleatorios; debe ser exclusiva de este hilo
+   *               (por ejemplo, un split() de SplittableRandom)
+   */
+  public SnakeRunner(Snake snake, Board board, List<Snake> snakes, PauseController pauseController,
+      RandomGenerator random) {
+    this(snake, board, snakes, pauseController, random, null);
+  }
+
+  /**
+   * @param autopilot campo de distancias compartido que alguien más mantiene
+   *                  actualizado (ver DistanceField.refresher); la serpiente lo usa
+   *                  para ir hacia la comida en lugar de girar al azar
+   */
+  public SnakeRunner(Snake snake, Board board, List<Snake> snakes, PauseController pauseController,
+      RandomGenerator random, DistanceField autopilot) {
+    this.random = random;
+    this.autopilot = autopilot;
     this.snake = snake;
     this.board = board;
     this.snakes = snakes;
+    this.pauseController = pauseController;
+    this.stepCounter = metrics.snakeCounter(snake.id());
   }
 
   @Override
   public void run() {
+    pauseController.register();
     try {
       while (!Thread.currentThread().isInterrupted()) {
 
-        // PARTE I y II: Sincronización mediante wait() (Evita el Busy-Waiting)
+        // PARTE I y II: Sincronización sin Busy-Waiting
         // El hilo se bloquea aquí si el juego está pausado, liberando la CPU.
-        synchronized (gameMonitor) {
-          while (isPaused) {
-            gameMonitor.wait();
-          }
-        }
-
-        maybeTurn();
-
-        // Ejecutar el paso en el tablero verificando colisiones con el resto de
-        // serpientes
-        var res = board.step(snake, snakes);
-
-        if (res == Board.MoveResult.SNAKE_DIED) {
-          // Lógica de muerte: Marcamos la serpiente y registramos si fue la primera
-          snake.die();
-          synchronized (gameMonitor) {
-            if (firstDead == null) {
-              firstDead = snake;
-            }
-          }
-          // El hilo termina su ejecución al morir la serpiente
+        // Mientras el paso está en curso pause() espera a que termine.
+        if (!pauseController.beginStep()) {
           break;
-
-        } else if (res == Board.MoveResult.HIT_OBSTACLE) {
-          // Rebote: Si choca con un cuadro naranja, gira aleatoriamente
-          randomTurn();
-
-        } else if (res == Board.MoveResult.ATE_TURBO) {
-          turboTicks = 100;
+        }
+        int sleep;
+        try {
+          sleep = advance();
+        } finally {
+          pauseController.endStep();
         }
 
-        // Gestión de velocidad (normal vs turbo)
-        int sleep = (turboTicks > 0) ? turboSleepMs : baseSleepMs;
-        if (turboTicks > 0)
-          turboTicks--;
-
+        // El hilo termina su ejecución al morir la serpiente
+        if (sleep < 0)
+          break;
         Thread.sleep(sleep);
       }
     } catch (InterruptedException ie) {
       // Manejo de interrupción para cierre seguro del hilo
       Thread.currentThread().interrupt();
+    } finally {
+      pauseController.deregister();
     }
   }
 
   /**
-   * Decide aleatoriamente si la serpiente debe girar en este tick.
+   * Un paso de la serpiente, sin esperas ni control de pausa: quien lo llama
+   * debe estar entre beginStep() y endStep() del PauseController (run() o un
+   * WheelScheduler).
+   *
+   * @return milisegundos hasta el siguiente paso (normal o turbo), o -1 si la
+   *         serpiente murió
+   */
+  int advance() {
+    maybeTurn();
+
+    // Ejecutar el paso en el tablero verificando colisiones con el resto de
+    // serpientes
+    var event = new StepEvent();
+    event.begin();
+    long start = System.nanoTime();
+    Board.MoveResult res = board.step(snake, snakes);
+    metrics.recordStep(stepCounter, System.nanoTime() - start);
+    event.end();
+    if (event.shouldCommit()) {
+      event.snakeId = snake.id();
+      event.result = res.name();
+      event.commit();
+    }
+
+    if (res == Board.MoveResult.SNAKE_DIED) {
+      // Lógica de muerte: al marcarla, el Leaderboard del tablero registra el
+      // orden de las muertes
+      snake.die();
+      return -1;
+
+    } else if (res == Board.MoveResult.HIT_OBSTACLE) {
+      // Rebote: Si choca con un cuadro naranja, gira aleatoriamente
+      randomTurn();
+
+    } else if (res == Board.MoveResult.ATE_TURBO) {
+      turboTicks = 100;
+    }
+
+    // Gestión de velocidad (normal vs turbo)
+    int sleep = (turboTicks > 0) ? turboSleepMs : baseSleepMs;
+    if (turboTicks > 0)
+      turboTicks--;
+    return sleep;
+  }
+
+  /**
+   * Decide si la serpiente debe girar en este tick: con piloto automático sigue
+   * el campo de distancias y, si no hay camino a la comida, gira al azar.
    */
   private void maybeTurn() {
+    if (autopilot != null && autopilot.steerTowardsFood(snake))
+      return;
     double p = (turboTicks > 0) ? 0.05 : 0.10;
-    if (ThreadLocalRandom.current().nextDouble() < p) {
+    if (rnd().nextDouble() < p) {
       randomTurn();
     }
   }
@@ -98,6 +159,10 @@ public final class SnakeRunner implements Runnable {
    */
   private void randomTurn() {
     var dirs = Direction.values();
-    snake.turn(dirs[ThreadLocalRandom.current().nextInt(dirs.length)]);
+    snake.turn(dirs[rnd().nextInt(dirs.length)]);
+  }
+
+  private RandomGenerator rnd() {
+    return random != null ? random : ThreadLocalRandom.current();
   }
 }
\ No newline at end of file
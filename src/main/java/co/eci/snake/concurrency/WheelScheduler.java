@@ -0,0 +1,285 @@
+package co.eci.snake.concurrency;
+
+import co.eci.snake.core.sync.PauseController;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Planificador de SnakeRunner sobre una rueda de tiempo (hashed timing wheel),
+ * alternativa a un hilo virtual con Thread.sleep() por serpiente: con cientos de
+ * miles de serpientes evita otros tantos hilos estacionados y temporizadores.
+ *
+ * Un único hilo avanza la rueda una ranura por tick. Cada serpiente vive en la
+ * ranura de su próximo paso con un contador de vueltas para plazos más largos que
+ * la rueda. Todas las serpientes que vencen en la misma ranura se ejecutan en una
+ * sola pasada, repartidas en bloques sobre un ForkJoinPool pequeño, y luego se
+ * reinsertan en el hilo de la rueda, que es el único que modifica las ranuras.
+ *
+ * La cadencia es de tasa fija y sin deriva: el siguiente plazo es el anterior más
+ * el período (normal o turbo) y no depende de cuánto tardó el paso. Si una
+ * serpiente se atrasa más de un período se salta los pasos perdidos (ver
+ * overruns()). Cada pasada va entre beginStep() y endStep() del PauseController,
+ * así pause() espera a que termine; el tiempo en pausa no cuenta para los plazos.
+ * Si el paso de una serpiente lanza una excepción, se entrega al manejador de
+ * excepciones no capturadas del hilo que la corrió (como le pasaría a un hilo
+ * por serpiente) y esa serpiente sale de la rueda; las demás siguen.
+ */
+public final class WheelScheduler implements AutoCloseable {
+  // Tamaño de bloque por debajo del cual la pasada no se reparte
+  private static final int BATCH_THRESHOLD = 256;
+
+  private final PauseController pauseController;
+  private final ForkJoinPool carriers;
+  private final long tickNanos;
+  private final Entry[] slots;
+  private final int mask;
+  // Serpientes nuevas, insertadas por el hilo de la rueda en el siguiente tick
+  private final ConcurrentLinkedQueue<Entry> pending = new ConcurrentLinkedQueue<>();
+  // Serpientes vencidas del tick actual
+  private Entry[] batch = new Entry[BATCH_THRESHOLD];
+  private long tick = 0;
+  // Origen del tiempo virtual: avanza con cada pausa para no contarla
+  private long base;
+  private Thread thread;
+  private volatile boolean closed = false;
+
+  private final AtomicInteger scheduled = new AtomicInteger();
+  private final AtomicLong overruns = new AtomicLong();
+  private final AtomicLong passes = new AtomicLong();
+
+  /**
+   * Rueda de 512 ranuras de 10 ms con un portador por procesador.
+   */
+  public WheelScheduler(PauseController pauseController) {
+    this(pauseController, Runtime.getRuntime().availableProcessors(), 10_000_000L, 512);
+  }
+
+  /**
+   * @param carriers  hilos que ejecutan los pasos
+   * @param tickNanos duración de una ranura (resolución de los plazos)
+   * @param slots     número de ranuras (se redondea a potencia de dos)
+   */
+  public WheelScheduler(PauseController pauseController, int carriers, long tickNanos, int slots) {
+    if (carriers <= 0 || tickNanos <= 0 || slots <= 0)
+      throw new IllegalArgumentException("carriers, tick and slots must be positive");
+    this.pauseController = Objects.requireNonNull(pauseController, "pauseController");
+    this.carriers = new ForkJoinPool(carriers);
+    this.tickNanos = tickNanos;
+    int size = Math.max(2, Integer.highestOneBit(slots - 1) << 1);
+    this.slots = new Entry[size];
+    this.mask = size - 1;
+  }
+
+  /**
+   * Agrega una serpiente; da su primer paso en el siguiente tick. Thread-safe.
+   */
+  public void schedule(SnakeRunner runner) {
+    Objects.requireNonNull(runner, "runner");
+    pauseController.register();
+    scheduled.incrementAndGet();
+    pending.add(new Entry(runner));
+  }
+
+  /**
+   * Inicia el hilo de la rueda.
+   */
+  public synchronized WheelScheduler start() {
+    if (thread == null) {
+      base = System.nanoTime();
+      thread = Thread.ofPlatform().daemon().name("snake-wheel").start(this::loop);
+    }
+    return this;
+  }
+
+  private void loop() {
+    try {
+      while (!closed) {
+        // Esperar el fin del tick actual en tiempo virtual
+        long wait = base + (tick + 1) * tickNanos - System.nanoTime();
+        if (wait > 0) {
+          LockSupport.parkNanos(wait);
+          continue;
+        }
+        long blockedSince = System.nanoTime();
+        if (!pauseController.beginStep())
+          break;
+        // El tiempo bloqueado en pausa se descuenta moviendo el origen
+        long blocked = System.nanoTime() - blockedSince;
+        if (blocked > tickNanos)
+          base += blocked;
+        try {
+          advance();
+        } finally {
+          pauseController.endStep();
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  // Procesa la ranura del tick actual
+  private void advance() {
+    tick++;
+    Entry e;
+    while ((e = pending.poll()) != null) {
+      e.due = now();
+      insert(e);
+    }
+    int n = collect((int) (tick & mask));
+    if (n == 0)
+      return;
+    if (n <= BATCH_THRESHOLD)
+      run(0, n);
+    else
+      carriers.invoke(new BatchTask(0, n));
+    passes.incrementAndGet();
+    long now = now();
+    for (int k = 0; k < n; k++) {
+      e = batch[k];
+      batch[k] = null;
+      if (e.period < 0) {
+        scheduled.decrementAndGet();
+        pauseController.deregister();
+        continue;
+      }
+      e.due += e.period;
+      if (e.due < now - e.period) {
+        overruns.incrementAndGet();
+        e.due = now;
+      }
+      insert(e);
+    }
+  }
+
+  // Saca de la ranura las entradas sin vueltas pendientes y descuenta una vuelta al resto
+  private int collect(int slot) {
+    int n = 0;
+    Entry prev = null;
+    Entry e = slots[slot];
+    while (e != null) {
+      Entry next = e.next;
+      if (e.rounds > 0) {
+        e.rounds--;
+        prev = e;
+      } else {
+        if (prev == null)
+          slots[slot] = next;
+        else
+          prev.next = next;
+        e.next = null;
+        if (n == batch.length)
+          batch = Arrays.copyOf(batch, n << 1);
+        batch[n++] = e;
+      }
+      e = next;
+    }
+    return n;
+  }
+
+  private void insert(Entry e) {
+    long dueTick = Math.max(tick + 1, Math.ceilDiv(e.due, tickNanos));
+    e.rounds = (dueTick - tick - 1) >>> Integer.numberOfTrailingZeros(slots.length);
+    int slot = (int) (dueTick & mask);
+    e.next = slots[slot];
+    slots[slot] = e;
+  }
+
+  private void run(int from, int to) {
+    for (int k = from; k < to; k++) {
+      Entry e = batch[k];
+      int sleep;
+      try {
+        sleep = e.runner.advance();
+      } catch (RuntimeException ex) {
+        // Como con un hilo por serpiente, un error solo detiene a esa serpiente: va
+        // al manejador de excepciones no capturadas del hilo, la serpiente sale de
+        // la rueda y el resto de la pasada sigue
+        var current = Thread.currentThread();
+        current.getUncaughtExceptionHandler().uncaughtException(current, ex);
+        sleep = -1;
+      }
+      e.period = sleep < 0 ? -1 : sleep * 1_000_000L;
+    }
+  }
+
+  // Tiempo virtual: nanosegundos desde el inicio sin contar las pausas
+  private long now() {
+    return System.nanoTime() - base;
+  }
+
+  /**
+   * Serpientes vivas en la rueda.
+   */
+  public int scheduled() {
+    return scheduled.get();
+  }
+
+  /**
+   * Veces que una serpiente se atrasó más de un período y perdió pasos.
+   */
+  public long overruns() {
+    return overruns.get();
+  }
+
+  /**
+   * Pasadas ejecutadas (ticks con al menos una serpiente vencida).
+   */
+  public long passes() {
+    return passes.get();
+  }
+
+  @Override
+  public void close() {
+    closed = true;
+    try {
+      if (thread != null) {
+        LockSupport.unpark(thread);
+        thread.join(1000);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    carriers.shutdown();
+  }
+
+  private static final class Entry {
+    final SnakeRunner runner;
+    // Plazo del próximo paso en tiempo virtual
+    long due;
+    // Período del último paso (-1 = la serpiente murió)
+    long period;
+    long rounds;
+    Entry next;
+
+    Entry(SnakeRunner runner) {
+      this.runner = runner;
+    }
+  }
+
+  private final class BatchTask extends RecursiveAction {
+    private final int from;
+    private final int to;
+
+    BatchTask(int from, int to) {
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from <= BATCH_THRESHOLD) {
+        run(from, to);
+        return;
+      }
+      int mid = (from + to) >>> 1;
+      invokeAll(new BatchTask(from, mid), new BatchTask(mid, to));
+    }
+  }
+}
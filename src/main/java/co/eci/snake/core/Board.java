@@ -1,42 +1,145 @@
 package co.eci.snake.core;
 
+import java.util.Collections;
 import java.util.HashMap;
-//Se elimina la importacion de HashSet ya que se implementa ConcurrentHashMap
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.List;
+import java.util.Random;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntPredicate;
+import java.util.random.RandomGenerator;
+
+import co.eci.snake.metrics.SimulationMetrics;
 
 public final class Board {
   private final int width;
   private final int height;
 
-  // Se inicializan los conjuntos de forma concurrente
-  private final Set<Position> mice = java.util.concurrent.ConcurrentHashMap.newKeySet();
-  private final Set<Position> obstacles = java.util.concurrent.ConcurrentHashMap.newKeySet();
-  private final Set<Position> turbo = java.util.concurrent.ConcurrentHashMap.newKeySet();
-  private final Map<Position, Position> teleports = new HashMap<>(); // Read-only after init
+  // Capas de ítems como bitsets concurrentes indexados por y * width + x:
+  // consultar o consumir un ítem no asigna objetos ni calcula hashes
+  private final CellSet mice;
+  private final CellSet obstacles;
+  private final CellSet turbo;
+  private final CellSet teleportCells;
+  // Pares de teleport como celdas empaquetadas (pocos pares, búsqueda lineal)
+  private int[] teleportFrom = new int[0];
+  private int[] teleportTo = new int[0];
+  private Map<Position, Position> teleports = Map.of(); // Read-only after init
+  // Grilla de ocupación: id de la serpiente dueña de cada celda (0 = libre).
+  // Una serpiente entra a una celda reclamándola por CAS (0 -> id), así entrar y
+  // consumir el ítem es una acción atómica sin candados globales.
+  private final IntCells occupancy;
+  private final Storage storage;
+  // Celdas realmente vacías (sin ítems, teleports ni cuerpos) para reabastecer en O(1)
+  private final FreeCells free;
+  // Condición para volver al índice, evaluada bajo el monitor de la franja (ver
+  // FreeCells.addIf)
+  private final IntPredicate empty = this::isEmpty;
+  // Fuente de aleatoriedad con semilla (null = ThreadLocalRandom, no reproducible);
+  // solo cambia en reset()
+  private RandomGenerator random;
+  // Clasificación en vivo: la actualizan las serpientes al crecer o morir
+  private final Leaderboard leaderboard = new Leaderboard(10);
+  // Flujo de cambios (null hasta que algún consumidor lo pide, ver changes())
+  private volatile ChangeLog changes;
 
   // Agregamos un nuevo resultado para representar la muerte por colisión
   public enum MoveResult {
     MOVED, ATE_MOUSE, HIT_OBSTACLE, ATE_TURBO, TELEPORTED, SNAKE_DIED
   }
 
+  private static final MoveResult[] RESULTS = MoveResult.values();
+
+  // Capas de ítems del tablero
+  public enum Item {
+    MOUSE, OBSTACLE, TURBO, TELEPORT
+  }
+
+  /**
+   * Dónde vive el estado por celda (ocupación, bitsets de ítems e índice de
+   * celdas libres, unos 12,5 bytes por celda). OFF_HEAP lo guarda en buffers
+   * directos que el recolector no recorre ni copia: para tableros de cientos de
+   * millones de celdas la memoria es predecible y el heap queda casi vacío. Las
+   * consultas y la semántica de concurrencia son las mismas.
+   */
+  public enum Storage {
+    HEAP, OFF_HEAP
+  }
+
   public Board(int width, int height) {
+    this(width, height, Storage.HEAP);
+  }
+
+  public Board(int width, int height, Storage storage) {
+    this(width, height, null, true, storage);
+  }
+
+  /**
+   * Crea un tablero reproducible: la misma semilla produce los mismos ítems,
+   * teleports y reabastecimientos.
+   */
+  public Board(int width, int height, long seed) {
+    this(width, height, seed, Storage.HEAP);
+  }
+
+  public Board(int width, int height, long seed, Storage storage) {
+    this(width, height, new Random(seed), true, storage);
+  }
+
+  private Board(int width, int height, RandomGenerator random, boolean populate, Storage storage) {
     if (width <= 0 || height <= 0)
       throw new IllegalArgumentException("Board dimensions must be positive");
+    if (width > Cell.MAX_SIDE || height > Cell.MAX_SIDE)
+      throw new IllegalArgumentException("Board dimensions must not exceed " + Cell.MAX_SIDE);
+    // Los índices de celda son int
+    if ((long) width * height > IntCells.MAX_DIRECT_LENGTH)
+      throw new IllegalArgumentException("Board must have at most " + IntCells.MAX_DIRECT_LENGTH + " cells");
     this.width = width;
     this.height = height;
+    this.storage = Objects.requireNonNull(storage, "storage");
+    this.occupancy = IntCells.allocate(width * height, storage);
+    this.mice = new CellSet(width, height, storage);
+    this.obstacles = new CellSet(width, height, storage);
+    this.turbo = new CellSet(width, height, storage);
+    this.teleportCells = new CellSet(width, height, storage);
+    this.free = new FreeCells(width * height, storage);
+    this.random = random;
+    if (populate)
+      populate();
+  }
+
+  // Ítems y teleports iniciales
+  private void populate() {
     for (int i = 0; i < 6; i++)
-      mice.add(randomEmpty());
+      spawn(Item.MOUSE);
     for (int i = 0; i < 4; i++)
-      obstacles.add(randomEmpty());
+      spawn(Item.OBSTACLE);
     for (int i = 0; i < 3; i++)
-      turbo.add(randomEmpty());
+      spawn(Item.TURBO);
     createTeleportPairs(2);
   }
 
+  /**
+   * Deja el tablero como uno nuevo creado con new Board(width, height, seed),
+   * con los mismos ítems y teleports, pero reutilizando sus arreglos: sirve para
+   * correr muchas carreras seguidas sin asignar un mundo por carrera (ver
+   * Tournament). Las serpientes registradas antes quedan fuera del tablero.
+   * Solo con el tablero quieto, desde el hilo que lo usa.
+   */
+  public void reset(long seed) {
+    occupancy.clear();
+    mice.clear();
+    obstacles.clear();
+    turbo.clear();
+    teleportCells.clear();
+    free.clear();
+    leaderboard.clear();
+    random = new Random(seed);
+    populate();
+  }
+
   public int width() {
     return width;
   }
@@ -45,94 +148,450 @@ public final class Board {
     return height;
   }
 
-  // Retornamos la vista directa, sin el uso de syncronized, ya que son
-  // concurrentes y seguras para iterar
+  public Storage storage() {
+    return storage;
+  }
+
+  /**
+   * Bytes del estado por celda guardados fuera del heap (0 con Storage.HEAP).
+   */
+  public long offHeapBytes() {
+    return occupancy.offHeapBytes() + mice.offHeapBytes() + obstacles.offHeapBytes() + turbo.offHeapBytes()
+        + teleportCells.offHeapBytes() + free.offHeapBytes();
+  }
+
+  // Vistas de solo lectura como posiciones para la UI; son concurrentes y
+  // seguras para iterar sin syncronized
   public Set<Position> mice() {
-    return mice;
+    return mice.asPositions();
   }
 
   public Set<Position> obstacles() {
-    return obstacles;
+    return obstacles.asPositions();
   }
 
   public Set<Position> turbo() {
-    return turbo;
+    return turbo.asPositions();
   }
 
   public Map<Position, Position> teleports() {
     return teleports;
   }
 
+  /**
+   * Copia las celdas de una capa de ítems (empaquetadas, ver Cell) en dst sin
+   * asignar objetos.
+   *
+   * @return el número de ítems; si es mayor que dst.length solo se copiaron los
+   *         primeros dst.length y el llamador debe ampliar el buffer
+   */
+  public int copyItems(Item item, int[] dst) {
+    return layer(item).copyTo(dst);
+  }
+
+  private CellSet layer(Item item) {
+    return switch (item) {
+      case MOUSE -> mice;
+      case OBSTACLE -> obstacles;
+      case TURBO -> turbo;
+      case TELEPORT -> teleportCells;
+    };
+  }
+
+  /**
+   * Registra una serpiente en el tablero marcando su cuerpo en la grilla de
+   * ocupación. Debe llamarse antes de iniciar los hilos para que todas las
+   * serpientes sean visibles en la detección de colisiones.
+   */
+  public void register(Snake snake) {
+    Objects.requireNonNull(snake, "snake").attach(this);
+  }
+
+  /**
+   * Registra varias serpientes como register(), pero la clasificación publica el
+   * podio una sola vez al final: para poblar mundos con miles de serpientes (ver
+   * WorldGenerator).
+   */
+  public void registerAll(List<Snake> snakes) {
+    for (Snake snake : snakes)
+      Objects.requireNonNull(snake, "snake").attach(this, false);
+    leaderboard.publish();
+  }
+
+  /**
+   * Id de la serpiente que ocupa la celda (0 si está libre).
+   */
+  public int occupant(int x, int y) {
+    return occupancy.get(y * width + x);
+  }
+
+  /**
+   * Intención de movimiento empaquetada en un long para no asignar objetos por
+   * paso: resultado preliminar en los 32 bits altos y celda destino (Cell, ya
+   * resuelto el teleport) en los bajos. HIT_OBSTACLE y SNAKE_DIED son finales.
+   */
+  public static final class Move {
+    private Move() {}
+
+    static long of(int target, MoveResult result) {
+      return ((long) result.ordinal() << 32) | (target & 0xFFFFFFFFL);
+    }
+
+    public static int target(long move) {
+      return (int) move;
+    }
+
+    public static MoveResult result(long move) {
+      return RESULTS[(int) (move >>> 32)];
+    }
+
+    public static boolean isFinal(long move) {
+      var r = result(move);
+      return r == MoveResult.HIT_OBSTACLE || r == MoveResult.SNAKE_DIED;
+    }
+  }
+
   /**
    * Ejecuta un paso de movimiento.
-   * Se añade el parámetro allSnakes para verificar colisiones entre ellas.
+   * Las colisiones se resuelven con la grilla de ocupación; allSnakes se conserva
+   * por compatibilidad con los llamadores existentes.
    */
   public MoveResult step(Snake snake, List<Snake> allSnakes) {
     Objects.requireNonNull(snake, "snake");
-    var head = snake.head();
+    if (!snake.isAttachedTo(this))
+      register(snake);
+    long move = plan(snake);
+    return Move.isFinal(move) ? Move.result(move) : commit(snake, move);
+  }
+
+  /**
+   * Fase de lectura del paso: calcula la intención de movimiento sin modificar
+   * el tablero, por lo que puede ejecutarse en paralelo para muchas serpientes.
+   */
+  public long plan(Snake snake) {
+    int head = snake.headCell();
     var dir = snake.direction();
 
-    // Calcular siguiente posición con wrap-around
-    Position next = new Position(head.x() + dir.dx, head.y() + dir.dy).wrap(width, height);
+    // Calcular siguiente posición con wrap-around (un solo paso por eje)
+    int x = Cell.x(head) + dir.dx;
+    int y = Cell.y(head) + dir.dy;
+    if (x < 0) x += width; else if (x >= width) x -= width;
+    if (y < 0) y += height; else if (y >= height) y -= height;
+    int next = Cell.pack(x, y);
+    int i = y * width + x;
 
     // 1. REBOTE: Si choca con un obstáculo naranja, solo retorna HIT_OBSTACLE
-    if (obstacles.contains(next))
-      return MoveResult.HIT_OBSTACLE;
+    if (obstacles.contains(i))
+      return Move.of(next, MoveResult.HIT_OBSTACLE);
 
     // 2. MUERTE: Si choca con cualquier serpiente (incluida ella misma)
-    for (Snake s : allSnakes) {
-      if (s.snapshot().contains(next)) {
-        return MoveResult.SNAKE_DIED;
-      }
-    }
+    if (occupancy.get(i) != 0)
+      return Move.of(next, MoveResult.SNAKE_DIED);
 
     // Lógica de Teleport
-    boolean teleported = false;
-    if (teleports.containsKey(next)) {
-      next = teleports.get(next);
-      teleported = true;
-    }
+    if (teleportCells.contains(i))
+      return Move.of(teleportTarget(next), MoveResult.TELEPORTED);
+    return Move.of(next, MoveResult.MOVED);
+  }
 
-    boolean ateMouse = mice.remove(next);
-    boolean ateTurbo = turbo.remove(next);
+  /**
+   * Fase de escritura del paso: reclama la celda destino, consume su ítem, avanza
+   * la serpiente y repone ítems si comió un ratón.
+   *
+   * Solo una serpiente puede reclamar una celda libre (CAS 0 -> id); las demás que
+   * la intenten al mismo tiempo mueren como si hubieran chocado. Como solo el dueño
+   * de la celda consume sus ítems, cada ratón se come y se repone una única vez.
+   */
+  public MoveResult commit(Snake snake, long move) {
+    int next = Move.target(move);
+    int i = index(next);
+    int id = snake.id();
+    if (!occupancy.compareAndSet(i, 0, id)) {
+      SimulationMetrics.get().recordClaimConflict();
+      return MoveResult.SNAKE_DIED;
+    }
+    // Un obstáculo pudo aparecer entre plan() y el reclamo (ver spawn)
+    if (obstacles.contains(i)) {
+      release(i, id);
+      return MoveResult.HIT_OBSTACLE;
+    }
+    free.remove(i);
+    boolean ateMouse = mice.remove(i);
+    boolean ateTurbo = turbo.remove(i);
+    if (ateMouse)
+      record(ChangeLog.Type.ITEM_CONSUMED, Item.MOUSE.ordinal(), next);
+    if (ateTurbo)
+      record(ChangeLog.Type.ITEM_CONSUMED, Item.TURBO.ordinal(), next);
 
     snake.advance(next, ateMouse);
 
     if (ateMouse) {
-      mice.add(randomEmpty());
-      obstacles.add(randomEmpty());
-      if (ThreadLocalRandom.current().nextDouble() < 0.2)
-        turbo.add(randomEmpty());
+      spawn(Item.MOUSE);
+      spawn(Item.OBSTACLE);
+      if (rnd().nextDouble() < 0.2)
+        spawn(Item.TURBO);
     }
 
     if (ateTurbo)
       return MoveResult.ATE_TURBO;
     if (ateMouse)
       return MoveResult.ATE_MOUSE;
-    if (teleported)
-      return MoveResult.TELEPORTED;
-    return MoveResult.MOVED;
+    return Move.result(move);
+  }
+
+  // Llamados por Snake.advance dentro de su región crítica
+  void occupy(int cell, int id) {
+    int i = index(cell);
+    occupancy.set(i, id);
+    free.remove(i);
+  }
+
+  void vacate(int cell, int id) {
+    var log = changes;
+    if (log == null) {
+      release(index(cell), id);
+      return;
+    }
+    // La secuencia se reserva antes de liberar: quien reclame la celda después
+    // emitirá su evento con una secuencia mayor
+    long seq = log.claim();
+    release(index(cell), id);
+    log.publish(seq, ChangeLog.encode(ChangeLog.Type.TAIL_POPPED, id, cell));
+  }
+
+  /**
+   * Clasificación en vivo de las serpientes registradas (ver Leaderboard).
+   */
+  public Leaderboard leaderboard() {
+    return leaderboard;
+  }
+
+  /**
+   * Flujo de cambios del tablero y de sus serpientes registradas. Se crea en la
+   * primera llamada; hasta entonces emitir no cuesta nada. Los cambios
+   * anteriores a la creación (y el cuerpo inicial de cada serpiente) no se
+   * emiten: el consumidor parte de una lectura completa del mundo.
+   *
+   * @param capacity eventos retenidos para consumidores atrasados (solo se usa
+   *                 en la primera llamada)
+   */
+  public synchronized ChangeLog changes(int capacity) {
+    if (changes == null)
+      changes = new ChangeLog(capacity);
+    return changes;
+  }
+
+  /**
+   * Emite un cambio ya ocurrido, si alguien consume el flujo.
+   */
+  void record(ChangeLog.Type type, int subject, int cell) {
+    var log = changes;
+    if (log != null)
+      log.emit(ChangeLog.encode(type, subject, cell));
+  }
+
+  private void release(int i, int id) {
+    if (occupancy.compareAndSet(i, id, 0))
+      free.addIf(i, empty);
+  }
+
+  private boolean isEmpty(int i) {
+    return occupancy.get(i) == 0 && !hasItem(i);
+  }
+
+  // Para DistanceField: una cabeza puede terminar en el índice (sin obstáculo ni cuerpo)
+  boolean passable(int i) {
+    return !obstacles.contains(i) && occupancy.get(i) == 0;
+  }
+
+  boolean isTeleport(int i) {
+    return teleportCells.contains(i);
+  }
+
+  boolean hasItem(int i) {
+    return mice.contains(i) || obstacles.contains(i) || turbo.contains(i) || teleportCells.contains(i);
+  }
+
+  // Para las pruebas: el índice debe coincidir con la ocupación y los ítems en reposo
+  FreeCells freeCells() {
+    return free;
+  }
+
+  /**
+   * Coloca un ítem de la capa en una celda libre elegida al azar.
+   * Si el tablero está lleno no coloca nada.
+   *
+   * Una serpiente puede reclamar la celda entre take() y la colocación. Ambos
+   * lados escriben y luego leen al otro (bit del ítem / dueño de la celda), así al
+   * menos uno ve el conflicto: aquí se retira el ítem y se elige otra celda, salvo
+   * que la serpiente ya lo haya consumido.
+   *
+   * ITEM_SPAWNED reserva su secuencia antes de colocar el ítem, así el
+   * ITEM_CONSUMED de la serpiente que lo coma siempre queda después. Un ítem
+   * retirado se emite como aparecido y consumido.
+   */
+  private void spawn(Item item) {
+    CellSet layer = layer(item);
+    var log = changes;
+    for (int attempt = 0; attempt < 8; attempt++) {
+      int i = free.take(rnd());
+      if (i < 0)
+        return;
+      long seq = log != null ? log.claim() : -1;
+      layer.add(i);
+      // Una serpiente pudo reclamar y soltar la celda entre take() y add(), y al
+      // soltarla la devolvió al índice; desde aquí add() ya no lo hará (ve el ítem)
+      free.remove(i);
+      boolean placed = occupancy.get(i) == 0 || !layer.remove(i);
+      if (log != null) {
+        int cell = Cell.pack(i % width, i / width);
+        log.publish(seq, ChangeLog.encode(ChangeLog.Type.ITEM_SPAWNED, item.ordinal(), cell));
+        if (!placed)
+          log.emit(ChangeLog.encode(ChangeLog.Type.ITEM_CONSUMED, item.ordinal(), cell));
+      }
+      if (placed)
+        return;
+      free.addIf(i, empty);
+    }
+  }
+
+  /**
+   * Tablero vacío, sin ítems ni teleports, para restaurar un checkpoint.
+   *
+   * @param random fuente de los reabastecimientos (null = ThreadLocalRandom)
+   */
+  static Board empty(int width, int height, RandomGenerator random) {
+    return empty(width, height, random, Storage.HEAP);
+  }
+
+  static Board empty(int width, int height, RandomGenerator random, Storage storage) {
+    return new Board(width, height, random, false, storage);
+  }
+
+  // Solo durante la generación (ver WorldGenerator): marca el ítem sin tocar el
+  // índice de celdas libres, que se pone al día después con indexItems()
+  void placeItem(Item item, int index) {
+    layer(item).add(index);
+  }
+
+  /**
+   * Retira del índice de celdas libres las celdas marcadas con placeItem, capa
+   * por capa y en orden ascendente. Como el índice cambia por intercambio con el
+   * último, hacerlo en un orden fijo lo deja igual sin importar en qué orden ni
+   * desde cuántos hilos se marcaron los ítems, así los reabastecimientos con
+   * semilla siguen siendo reproducibles. Recorre las palabras de los bitsets, no
+   * las celdas. Solo con el tablero quieto, antes de registrar serpientes.
+   */
+  void indexItems() {
+    for (Item item : Item.values())
+      layer(item).forEach(free::remove);
+  }
+
+  // Solo durante la generación: retira una celda del índice de libres
+  void reserve(int index) {
+    free.remove(index);
+  }
+
+  /**
+   * Retira una celda vacía elegida con la fuente del tablero.
+   *
+   * @return índice de celda, o -1 si el tablero está lleno
+   */
+  int takeFree() {
+    return free.take(rnd());
+  }
+
+  // Solo durante la restauración, antes de registrar serpientes
+  void restoreItem(Item item, int cell) {
+    int i = index(cell);
+    layer(item).add(i);
+    free.remove(i);
+  }
+
+  /**
+   * Pares de teleport como [a0, b0, a1, b1, ...] (cada par aparece una vez).
+   */
+  int[] teleportPairs() {
+    int[] pairs = new int[teleportFrom.length];
+    for (int k = 0; k < teleportFrom.length; k += 2) {
+      pairs[k] = teleportFrom[k];
+      pairs[k + 1] = teleportTo[k];
+    }
+    return pairs;
+  }
+
+  // Solo durante la restauración, antes de registrar serpientes
+  void restoreTeleports(int[] pairs) {
+    teleportFrom = new int[pairs.length];
+    teleportTo = new int[pairs.length];
+    var view = new HashMap<Position, Position>();
+    for (int k = 0; k < pairs.length; k += 2) {
+      int a = pairs[k], b = pairs[k + 1];
+      restoreItem(Item.TELEPORT, a);
+      restoreItem(Item.TELEPORT, b);
+      teleportFrom[k] = a;
+      teleportTo[k] = b;
+      teleportFrom[k + 1] = b;
+      teleportTo[k + 1] = a;
+      view.put(Cell.toPosition(a), Cell.toPosition(b));
+      view.put(Cell.toPosition(b), Cell.toPosition(a));
+    }
+    teleports = Collections.unmodifiableMap(view);
+  }
+
+  private int index(int cell) {
+    return Cell.y(cell) * width + Cell.x(cell);
+  }
+
+  int teleportTarget(int cell) {
+    for (int k = 0; k < teleportFrom.length; k++) {
+      if (teleportFrom[k] == cell)
+        return teleportTo[k];
+    }
+    return cell;
   }
 
   private void createTeleportPairs(int pairs) {
+    // En tableros muy pequeños se crean solo los pares que caben
+    pairs = Math.min(pairs, free.size() / 2);
+    teleportFrom = new int[pairs * 2];
+    teleportTo = new int[pairs * 2];
+    var view = new HashMap<Position, Position>();
     for (int i = 0; i < pairs; i++) {
-      Position a = randomEmpty();
-      Position b = randomEmpty();
-      teleports.put(a, b);
-      teleports.put(b, a);
+      int ia = free.take(rnd());
+      int ib = free.take(rnd());
+      teleportCells.add(ia);
+      teleportCells.add(ib);
+      int a = Cell.pack(ia % width, ia / width);
+      int b = Cell.pack(ib % width, ib / width);
+      teleportFrom[2 * i] = a;
+      teleportTo[2 * i] = b;
+      teleportFrom[2 * i + 1] = b;
+      teleportTo[2 * i + 1] = a;
+      view.put(Cell.toPosition(a), Cell.toPosition(b));
+      view.put(Cell.toPosition(b), Cell.toPosition(a));
     }
+    teleports = Collections.unmodifiableMap(view);
   }
 
-  private Position randomEmpty() {
-    var rnd = ThreadLocalRandom.current();
-    Position p;
-    int guard = 0;
-    do {
-      p = new Position(rnd.nextInt(width), rnd.nextInt(height));
-      guard++;
-      if (guard > width * height * 2)
-        break;
-    } while (mice.contains(p) || obstacles.contains(p) || turbo.contains(p) || teleports.containsKey(p));
-    return p;
+  private RandomGenerator rnd() {
+    return random != null ? random : ThreadLocalRandom.current();
+  }
+
+  /**
+   * Celda vacía (sin ítems, teleports ni serpientes) elegida uniformemente en O(1).
+   *
+   * @return la posición, o null si el tablero está lleno
+   */
+  public Position randomEmpty() {
+    while (true) {
+      int i = free.sample(rnd());
+      if (i < 0)
+        return null;
+      // commit() reclama la celda antes de retirarla del índice, así una celda
+      // recién ocupada puede seguir ahí un instante: se descarta y se sortea otra
+      if (occupancy.get(i) == 0 && !hasItem(i))
+        return new Position(i % width, i / width);
+    }
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,32 @@
+package co.eci.snake.core;
+
+/**
+ * Celdas empaquetadas en un int: x en los 16 bits altos y y en los 16 bajos.
+ * Representación sin asignaciones para el camino caliente; Position queda como
+ * vista para la UI. Independiente del tamaño del tablero (máximo 65536 por lado).
+ */
+public final class Cell {
+  public static final int MAX_SIDE = 1 << 16;
+
+  private Cell() {}
+
+  public static int pack(int x, int y) {
+    return (x << 16) | (y & 0xFFFF);
+  }
+
+  public static int x(int cell) {
+    return cell >>> 16;
+  }
+
+  public static int y(int cell) {
+    return cell & 0xFFFF;
+  }
+
+  public static int of(Position p) {
+    return pack(p.x(), p.y());
+  }
+
+  public static Position toPosition(int cell) {
+    return new Position(x(cell), y(cell));
+  }
+}
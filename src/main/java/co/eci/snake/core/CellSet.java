@@ -0,0 +1,164 @@
+package co.eci.snake.core;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+/**
+ * Conjunto concurrente de celdas del tablero implementado como bitset: un bit
+ * por celda (índice y * width + x) y operaciones por CAS, sin cajas ni hashing.
+ * Thread-safe; add/remove son atómicos por celda. Las palabras viven en el heap o
+ * fuera de él según el almacenamiento del tablero (ver LongCells).
+ */
+final class CellSet {
+  private final int width;
+  private final LongCells words;
+  private final AtomicInteger size = new AtomicInteger();
+  private final Set<Position> view = new PositionView();
+
+  CellSet(int width, int height, Board.Storage storage) {
+    this.width = width;
+    this.words = LongCells.allocate((int) (((long) width * height + 63) >>> 6), storage);
+  }
+
+  boolean contains(int index) {
+    return (words.get(index >>> 6) & (1L << index)) != 0;
+  }
+
+  /**
+   * @return true si la celda no estaba en el conjunto
+   */
+  boolean add(int index) {
+    int w = index >>> 6;
+    long bit = 1L << index;
+    long cur;
+    do {
+      cur = words.get(w);
+      if ((cur & bit) != 0)
+        return false;
+    } while (!words.compareAndSet(w, cur, cur | bit));
+    size.incrementAndGet();
+    return true;
+  }
+
+  /**
+   * @return true si la celda estaba en el conjunto (solo un hilo gana)
+   */
+  boolean remove(int index) {
+    int w = index >>> 6;
+    long bit = 1L << index;
+    long cur;
+    do {
+      cur = words.get(w);
+      if ((cur & bit) == 0)
+        return false;
+    } while (!words.compareAndSet(w, cur, cur & ~bit));
+    size.decrementAndGet();
+    return true;
+  }
+
+  int size() {
+    return size.get();
+  }
+
+  long offHeapBytes() {
+    return words.offHeapBytes();
+  }
+
+  /**
+   * Vacía el conjunto. Solo con el tablero quieto (sin otros hilos usándolo).
+   */
+  void clear() {
+    for (int w = 0; w < words.length(); w++)
+      words.setPlain(w, 0);
+    size.set(0);
+  }
+
+  /**
+   * Recorre los índices de celda del conjunto en orden ascendente. Débilmente
+   * consistente bajo concurrencia, como copyTo.
+   */
+  void forEach(IntConsumer action) {
+    for (int w = 0; w < words.length(); w++) {
+      long bits = words.get(w);
+      while (bits != 0) {
+        action.accept((w << 6) + Long.numberOfTrailingZeros(bits));
+        bits &= bits - 1;
+      }
+    }
+  }
+
+  /**
+   * Copia las celdas del conjunto (empaquetadas, ver Cell) en dst sin asignar.
+   *
+   * @return el número de celdas encontradas; si es mayor que dst.length solo se
+   *         copiaron las primeras dst.length
+   */
+  int copyTo(int[] dst) {
+    int n = 0;
+    for (int w = 0; w < words.length(); w++) {
+      long bits = words.get(w);
+      while (bits != 0) {
+        int index = (w << 6) + Long.numberOfTrailingZeros(bits);
+        bits &= bits - 1;
+        if (n < dst.length)
+          dst[n] = Cell.pack(index % width, index / width);
+        n++;
+      }
+    }
+    return n;
+  }
+
+  /**
+   * Vista de solo lectura como posiciones, para la UI. La iteración es débilmente
+   * consistente, igual que la de los conjuntos concurrentes que reemplaza.
+   */
+  Set<Position> asPositions() {
+    return view;
+  }
+
+  private final class PositionView extends AbstractSet<Position> {
+    @Override
+    public boolean contains(Object o) {
+      if (!(o instanceof Position p) || p.x() < 0 || p.x() >= width || p.y() < 0)
+        return false;
+      int index = p.y() * width + p.x();
+      return index < words.length() << 6 && CellSet.this.contains(index);
+    }
+
+    @Override
+    public int size() {
+      return CellSet.this.size();
+    }
+
+    @Override
+    public Iterator<Position> iterator() {
+      return new Iterator<>() {
+        private int word = -1;
+        private long bits = 0;
+
+        @Override
+        public boolean hasNext() {
+          while (bits == 0) {
+            if (++word >= words.length())
+              return false;
+            bits = words.get(word);
+          }
+          return true;
+        }
+
+        @Override
+        public Position next() {
+          if (!hasNext())
+            throw new NoSuchElementException();
+          int index = (word << 6) + Long.numberOfTrailingZeros(bits);
+          bits &= bits - 1;
+          return new Position(index % width, index / width);
+        }
+      };
+    }
+  }
+}
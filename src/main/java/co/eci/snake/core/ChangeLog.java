@@ -0,0 +1,178 @@
+package co.eci.snake.core;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Flujo de cambios del mundo en un buffer circular preasignado: cabeza agregada,
+ * cola retirada, ítem consumido o aparecido y serpiente muerta. Los consumidores
+ * mantienen sus propias vistas en O(cambios) por tick en lugar de leer el mundo
+ * completo.
+ *
+ * Cada evento es un long (ver type(), subject() y cell()), así emitir no asigna.
+ * Varios hilos emiten a la vez: cada uno reserva una secuencia con un contador
+ * atómico, escribe su ranura y la publica con un sello. El orden del flujo sigue
+ * al de las operaciones: quien hace visible un cambio reserva su secuencia antes
+ * de hacerlo y quien reacciona a un cambio la reserva después de observarlo.
+ *
+ * Los productores nunca esperan: un consumidor que se atrasa más que la
+ * capacidad pierde eventos, read() se lo indica con LOST y debe reconstruir su
+ * vista desde el estado completo.
+ */
+public final class ChangeLog {
+  public enum Type {
+    HEAD_PUSHED, TAIL_POPPED, ITEM_CONSUMED, ITEM_SPAWNED, SNAKE_DIED
+  }
+
+  /**
+   * Resultado de read() cuando el consumidor perdió eventos.
+   */
+  public static final int LOST = -1;
+
+  private static final Type[] TYPES = Type.values();
+  private static final VarHandle STAMP = MethodHandles.arrayElementVarHandle(long[].class);
+  // Sello de una ranura en escritura
+  private static final long WRITING = -2;
+
+  private final long[] events;
+  // Secuencia publicada en cada ranura (-1 = nunca escrita)
+  private final long[] stamps;
+  private final int mask;
+  private final AtomicLong next = new AtomicLong();
+
+  /**
+   * @param capacity número de eventos retenidos (se redondea a potencia de dos)
+   */
+  public ChangeLog(int capacity) {
+    if (capacity <= 0)
+      throw new IllegalArgumentException("capacity must be positive");
+    int size = Integer.highestOneBit(capacity - 1) << 1;
+    size = Math.max(size, 2);
+    this.events = new long[size];
+    this.stamps = new long[size];
+    Arrays.fill(stamps, -1);
+    this.mask = size - 1;
+  }
+
+  public int capacity() {
+    return events.length;
+  }
+
+  /**
+   * Secuencia del próximo evento (total de eventos emitidos).
+   */
+  public long head() {
+    return next.get();
+  }
+
+  // Codificación: tipo en los 8 bits altos, sujeto (id de serpiente u ordinal de
+  // la capa de ítems) en los 24 siguientes y la celda empaquetada en los 32 bajos
+  static long encode(Type type, int subject, int cell) {
+    return ((long) type.ordinal() << 56) | ((long) (subject & 0xFFFFFF) << 32) | (cell & 0xFFFFFFFFL);
+  }
+
+  public static Type type(long event) {
+    return TYPES[(int) (event >>> 56)];
+  }
+
+  /**
+   * Id de la serpiente, o ordinal de Board.Item en los eventos de ítems.
+   */
+  public static int subject(long event) {
+    return (int) (event >>> 32) & 0xFFFFFF;
+  }
+
+  /**
+   * Celda empaquetada (ver Cell).
+   */
+  public static int cell(long event) {
+    return (int) event;
+  }
+
+  /**
+   * Reserva la secuencia de un evento que se publicará con publish().
+   */
+  long claim() {
+    return next.getAndIncrement();
+  }
+
+  void publish(long sequence, long event) {
+    int slot = (int) (sequence & mask);
+    STAMP.setOpaque(stamps, slot, WRITING);
+    VarHandle.storeStoreFence();
+    events[slot] = event;
+    STAMP.setRelease(stamps, slot, sequence);
+  }
+
+  void emit(long event) {
+    publish(claim(), event);
+  }
+
+  /**
+   * Posición de lectura de un consumidor. Un cursor pertenece a un solo hilo.
+   */
+  public static final class Cursor {
+    private long position;
+    private long lost;
+
+    private Cursor(long position) {
+      this.position = position;
+    }
+
+    /**
+     * Veces que el consumidor se atrasó más que la capacidad.
+     */
+    public long lost() {
+      return lost;
+    }
+  }
+
+  /**
+   * Cursor que empieza en el próximo evento.
+   */
+  public Cursor cursor() {
+    return new Cursor(next.get());
+  }
+
+  /**
+   * Copia en dst los eventos publicados desde la posición del cursor, en orden,
+   * y avanza el cursor. Se detiene en el primer evento reservado pero aún no
+   * publicado.
+   *
+   * @return el número de eventos copiados, o LOST si el cursor quedó atrás (el
+   *         cursor salta entonces al evento más reciente)
+   */
+  public int read(Cursor cursor, long[] dst) {
+    long head = next.get();
+    long from = cursor.position;
+    if (head - from > events.length)
+      return lose(cursor, head);
+    int n = 0;
+    while (n < dst.length && from < head) {
+      int slot = (int) (from & mask);
+      long stamp = (long) STAMP.getAcquire(stamps, slot);
+      if (stamp != from) {
+        if (stamp > from || stamp == WRITING && next.get() - from > events.length)
+          return lose(cursor, next.get());
+        break;
+      }
+      long event = events[slot];
+      VarHandle.loadLoadFence();
+      // Un productor de una vuelta posterior pudo sobrescribir la ranura
+      if ((long) STAMP.getAcquire(stamps, slot) != from)
+        return lose(cursor, next.get());
+      dst[n++] = event;
+      from++;
+    }
+    cursor.position = from;
+    return n;
+  }
+
+  private static int lose(Cursor cursor, long head) {
+    cursor.position = head;
+    cursor.lost++;
+    return LOST;
+  }
+}
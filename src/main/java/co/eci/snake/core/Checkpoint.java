@@ -0,0 +1,187 @@
+package co.eci.snake.core;
+
+import co.eci.snake.core.Board.Item;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.random.RandomGenerator;
+
+/**
+ * Checkpoint del mundo completo: tablero (ítems y teleports) y serpientes
+ * (cuerpo, dirección, longitud máxima y si murieron).
+ *
+ * Formato binario (enteros de 32 bits big-endian, celdas empaquetadas con Cell):
+ * <pre>
+ * MAGIC VERSION ancho alto
+ * por capa (ratones, obstáculos, turbo): n, n celdas
+ * pares de teleport: n, n pares (a, b)
+ * serpientes: n, y por serpiente: dirección | muerta &lt;&lt; 8, longitud máxima,
+ *             longitud, longitud celdas de la cabeza a la cola
+ * </pre>
+ * Todo se lee y escribe como corridas de ints sobre un archivo mapeado en
+ * memoria, sin objetos por celda. El estado del generador aleatorio no se guarda:
+ * al restaurar se indica una semilla nueva para los reabastecimientos.
+ *
+ * save() debe llamarse con el mundo quieto: entre ticks del LockstepEngine o con
+ * el PauseController en pausa.
+ */
+public final class Checkpoint {
+  private static final int MAGIC = 0x534E4B43; // "SNKC"
+  private static final int VERSION = 1;
+  private static final Item[] LAYERS = { Item.MOUSE, Item.OBSTACLE, Item.TURBO };
+  private static final Direction[] DIRECTIONS = Direction.values();
+
+  private final Board board;
+  private final List<Snake> snakes;
+
+  private Checkpoint(Board board, List<Snake> snakes) {
+    this.board = board;
+    this.snakes = snakes;
+  }
+
+  public Board board() {
+    return board;
+  }
+
+  /**
+   * Serpientes restauradas, registradas en el tablero y en el orden guardado.
+   */
+  public List<Snake> snakes() {
+    return snakes;
+  }
+
+  /**
+   * Guarda el tablero y las serpientes en el archivo (lo reemplaza si existe).
+   */
+  public static void save(Path file, Board board, List<Snake> snakes) {
+    // 1. Capturar las corridas de ints antes de calcular el tamaño del archivo
+    int[][] layers = new int[LAYERS.length][];
+    for (int l = 0; l < LAYERS.length; l++)
+      layers[l] = items(board, LAYERS[l]);
+    int[] teleports = board.teleportPairs();
+    int[][] bodies = new int[snakes.size()][];
+    long ints = 4 + LAYERS.length + 1 + teleports.length + 1;
+    for (int l = 0; l < LAYERS.length; l++)
+      ints += layers[l].length;
+    for (int i = 0; i < bodies.length; i++) {
+      int[] body = new int[snakes.get(i).getLength()];
+      int n;
+      while ((n = snakes.get(i).copyBody(body)) > body.length)
+        body = new int[n];
+      bodies[i] = n == body.length ? body : Arrays.copyOf(body, n);
+      ints += 3 + n;
+    }
+    if (ints > Integer.MAX_VALUE / 4)
+      throw new IllegalArgumentException("World too large for a single checkpoint mapping");
+
+    // 2. Volcarlas sobre el archivo mapeado
+    try (var channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+        StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_WRITE, 0, ints * 4);
+      IntBuffer out = map.asIntBuffer();
+      out.put(MAGIC).put(VERSION).put(board.width()).put(board.height());
+      for (int[] layer : layers)
+        out.put(layer.length).put(layer);
+      out.put(teleports.length / 2).put(teleports);
+      out.put(bodies.length);
+      for (int i = 0; i < bodies.length; i++) {
+        Snake s = snakes.get(i);
+        out.put(s.direction().ordinal() | (s.isDead() ? 1 << 8 : 0));
+        out.put(s.maxLength());
+        out.put(bodies[i].length).put(bodies[i]);
+      }
+      map.force();
+    } catch (IOException e) {
+      throw new UncheckedIOException("Cannot write checkpoint " + file, e);
+    }
+  }
+
+  /**
+   * Restaura un checkpoint; los reabastecimientos usarán ThreadLocalRandom.
+   */
+  public static Checkpoint load(Path file) {
+    return load(file, null, Board.Storage.HEAP);
+  }
+
+  /**
+   * Restaura un checkpoint con una semilla para los reabastecimientos futuros.
+   */
+  public static Checkpoint load(Path file, long seed) {
+    return load(file, new Random(seed), Board.Storage.HEAP);
+  }
+
+  /**
+   * Como load(file, seed), pero con el tablero en el almacenamiento indicado.
+   */
+  public static Checkpoint load(Path file, long seed, Board.Storage storage) {
+    return load(file, new Random(seed), storage);
+  }
+
+  private static Checkpoint load(Path file, RandomGenerator random, Board.Storage storage) {
+    IntBuffer in;
+    try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      ByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      in = map.asIntBuffer();
+    } catch (IOException e) {
+      throw new UncheckedIOException("Cannot read checkpoint " + file, e);
+    }
+    if (in.remaining() < 4 || in.get() != MAGIC)
+      throw new IllegalArgumentException("Not a checkpoint file: " + file);
+    int version = in.get();
+    if (version != VERSION)
+      throw new IllegalArgumentException("Unsupported checkpoint version " + version);
+
+    var board = Board.empty(in.get(), in.get(), random, storage);
+    int[] cells = new int[64];
+    for (Item item : LAYERS) {
+      int n = in.get();
+      cells = read(in, n, cells);
+      for (int k = 0; k < n; k++)
+        board.restoreItem(item, cells[k]);
+    }
+    int pairs = in.get();
+    int[] teleports = new int[pairs * 2];
+    in.get(teleports);
+    board.restoreTeleports(teleports);
+
+    int count = in.get();
+    var snakes = new ArrayList<Snake>(count);
+    for (int i = 0; i < count; i++) {
+      int flags = in.get();
+      int maxLength = in.get();
+      int length = in.get();
+      cells = read(in, length, cells);
+      var snake = Snake.restore(cells, length, DIRECTIONS[flags & 0xFF], maxLength, (flags & (1 << 8)) != 0);
+      board.register(snake);
+      snakes.add(snake);
+    }
+    return new Checkpoint(board, Collections.unmodifiableList(snakes));
+  }
+
+  private static int[] items(Board board, Item item) {
+    int[] cells = new int[64];
+    int n;
+    while ((n = board.copyItems(item, cells)) > cells.length)
+      cells = new int[n];
+    return Arrays.copyOf(cells, n);
+  }
+
+  // Lee n ints en buf, ampliándolo si no caben
+  private static int[] read(IntBuffer in, int n, int[] buf) {
+    if (n > buf.length)
+      buf = new int[Integer.highestOneBit(n - 1) << 1];
+    in.get(buf, 0, n);
+    return buf;
+  }
+}
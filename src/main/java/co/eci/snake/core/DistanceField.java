@@ -0,0 +1,228 @@
+package co.eci.snake.core;
+
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Campo de distancias hacia el ratón más cercano, compartido por todas las
+ * serpientes con piloto automático.
+ *
+ * compute() hace una sola BFS multi-fuente desde todos los ratones, hacia atrás:
+ * la distancia de una celda es el número de pasos que necesita una cabeza ahí
+ * para comer. Respeta el wrap-around, los teleports (entrar a uno deja la cabeza
+ * en su par), los obstáculos y los cuerpos. Con el campo calculado, elegir la
+ * dirección de una serpiente es O(1): se comparan sus cuatro vecinos.
+ *
+ * El campo usa doble buffer: compute() escribe en el de atrás y lo publica con
+ * una escritura volátil, así los lectores (uno por hilo de serpiente) no
+ * esperan. Un lector lento puede seguir con el buffer publicado cuando el
+ * cálculo siguiente al siguiente ya lo está sobrescribiendo; para descartar esa
+ * lectura mezclada, compute() lleva una secuencia (impar mientras escribe) y
+ * los lectores repiten la consulta si desde que tomaron el buffer empezó a
+ * escribirse en él.
+ */
+public final class DistanceField {
+  /**
+   * Distancia de una celda desde la que no se alcanza ningún ratón.
+   */
+  public static final int UNREACHABLE = Integer.MAX_VALUE;
+
+  private static final Direction[] DIRECTIONS = Direction.values();
+
+  private final Board board;
+  private final int width;
+  private final int height;
+  private volatile int[] front;
+  private int[] back;
+  private final int[] queue;
+  private int[] sources = new int[64];
+  private volatile long generation = 0;
+  // Impar mientras compute() escribe en back
+  private volatile long seq = 0;
+
+  public DistanceField(Board board) {
+    this.board = board;
+    this.width = board.width();
+    this.height = board.height();
+    int cells = width * height;
+    this.front = new int[cells];
+    this.back = new int[cells];
+    this.queue = new int[cells];
+    Arrays.fill(front, UNREACHABLE);
+  }
+
+  /**
+   * Recalcula el campo con el estado actual del tablero. O(celdas) sin asignar
+   * memoria; un solo hilo calcula a la vez.
+   */
+  public synchronized void compute() {
+    int[] dist = back;
+    long s = seq;
+    seq = s + 1;
+    VarHandle.storeStoreFence();
+    Arrays.fill(dist, UNREACHABLE);
+    int n;
+    while ((n = board.copyItems(Board.Item.MOUSE, sources)) > sources.length)
+      sources = new int[Integer.highestOneBit(n - 1) << 1];
+    int tail = 0;
+    for (int k = 0; k < n; k++) {
+      int i = index(sources[k]);
+      if (dist[i] != UNREACHABLE || !board.passable(i))
+        continue;
+      dist[i] = 0;
+      queue[tail++] = i;
+    }
+    for (int headIdx = 0; headIdx < tail; headIdx++) {
+      int c = queue[headIdx];
+      int next = dist[c] + 1;
+      // Celda por la que se entra para terminar en c: la misma, o el par si c es
+      // un teleport (a un teleport solo se llega saliendo de su par)
+      int entry = board.isTeleport(c) ? index(board.teleportTarget(cellOf(c))) : c;
+      if (entry != c && !board.passable(entry))
+        continue;
+      int x = entry % width, y = entry / width;
+      int row = y * width;
+      tail = visit(dist, x == 0 ? row + width - 1 : entry - 1, next, tail);
+      tail = visit(dist, x == width - 1 ? row : entry + 1, next, tail);
+      tail = visit(dist, y == 0 ? entry + (height - 1) * width : entry - width, next, tail);
+      tail = visit(dist, y == height - 1 ? x : entry + width, next, tail);
+    }
+    back = front;
+    front = dist;
+    generation++;
+    seq = s + 2;
+  }
+
+  // Secuencia antes de tomar el buffer de adelante
+  private long beginRead() {
+    return seq;
+  }
+
+  // El buffer tomado tras leer s se publicó a más tardar en s + 2 (redondeando s
+  // hacia abajo a par) y se vuelve a escribir recién a partir de s + 3
+  private boolean validate(long s) {
+    VarHandle.loadLoadFence();
+    return seq - (s & ~1L) <= 2;
+  }
+
+  // Las celdas ocupadas reciben distancia (las cabezas están ahí) pero ninguna
+  // cabeza puede terminar en ellas, así que no se expanden
+  private int visit(int[] dist, int p, int distance, int tail) {
+    if (dist[p] == UNREACHABLE) {
+      dist[p] = distance;
+      if (board.passable(p))
+        queue[tail++] = p;
+    }
+    return tail;
+  }
+
+  /**
+   * Número de veces que se recalculó el campo.
+   */
+  public long generation() {
+    return generation;
+  }
+
+  /**
+   * Pasos hasta el ratón más cercano desde la celda, o UNREACHABLE.
+   */
+  public int distance(int x, int y) {
+    while (true) {
+      long s = beginRead();
+      int d = front[y * width + x];
+      if (validate(s))
+        return d;
+    }
+  }
+
+  /**
+   * Dirección que acerca la cabeza de la serpiente al ratón más cercano, sin giros
+   * en U y evitando obstáculos y cuerpos según el estado actual del tablero. Ante
+   * un empate conserva la dirección actual.
+   *
+   * @return la dirección, o null si ningún vecino lleva a un ratón
+   */
+  public Direction steer(Snake snake) {
+    while (true) {
+      long s = beginRead();
+      Direction d = steer(snake, front);
+      if (validate(s))
+        return d;
+    }
+  }
+
+  private Direction steer(Snake snake, int[] dist) {
+    int head = snake.headCell();
+    Direction current = snake.direction();
+    int hx = Cell.x(head), hy = Cell.y(head);
+    Direction best = null;
+    int bestDistance = UNREACHABLE;
+    for (Direction d : DIRECTIONS) {
+      if (d.dx == -current.dx && d.dy == -current.dy)
+        continue;
+      int m = neighbour(hx, hy, d.dx, d.dy);
+      if (!board.passable(m))
+        continue;
+      int landing = board.isTeleport(m) ? index(board.teleportTarget(cellOf(m))) : m;
+      if (landing != m && !board.passable(landing))
+        continue;
+      int dm = dist[landing];
+      if (dm < bestDistance || (dm == bestDistance && dm != UNREACHABLE && d == current)) {
+        best = d;
+        bestDistance = dm;
+      }
+    }
+    return best;
+  }
+
+  /**
+   * Gira la serpiente hacia el ratón más cercano si hace falta.
+   *
+   * @return false si el campo no ofrece ninguna dirección útil
+   */
+  public boolean steerTowardsFood(Snake snake) {
+    Direction d = steer(snake);
+    if (d == null)
+      return false;
+    if (d != snake.direction())
+      snake.turn(d);
+    return true;
+  }
+
+  /**
+   * Tarea que recalcula el campo hz veces por segundo hasta ser interrumpida,
+   * para el modo en que cada serpiente corre en su propio hilo.
+   */
+  public Runnable refresher(int hz) {
+    long periodNanos = 1_000_000_000L / hz;
+    return () -> {
+      long next = System.nanoTime();
+      while (!Thread.currentThread().isInterrupted()) {
+        compute();
+        next += periodNanos;
+        long wait = next - System.nanoTime();
+        if (wait > 0)
+          LockSupport.parkNanos(wait);
+        else
+          next = System.nanoTime();
+      }
+    };
+  }
+
+  private int neighbour(int x, int y, int dx, int dy) {
+    x += dx;
+    y += dy;
+    if (x < 0) x += width; else if (x >= width) x -= width;
+    if (y < 0) y += height; else if (y >= height) y -= height;
+    return y * width + x;
+  }
+
+  private int index(int cell) {
+    return Cell.y(cell) * width + Cell.x(cell);
+  }
+
+  private int cellOf(int i) {
+    return Cell.pack(i % width, i / width);
+  }
+}
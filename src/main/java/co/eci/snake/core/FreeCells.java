@@ -0,0 +1,200 @@
+package co.eci.snake.core;
+
+import java.util.function.IntPredicate;
+import java.util.random.RandomGenerator;
+
+/**
+ * Índice de celdas libres (sin ítems, teleports ni serpientes) con muestreo
+ * uniforme en O(1): arreglo denso de celdas con borrado por intercambio con el
+ * último elemento y un mapa inverso celda -> posición en el arreglo.
+ *
+ * Thread-safe sin un candado global: las celdas se reparten en franjas
+ * (índice módulo STRIPES), cada una con su propio monitor. Los movimientos solo
+ * bloquean la franja de la celda que ocupan o liberan; el muestreo elige la franja
+ * con probabilidad proporcional a su tamaño, así sigue siendo uniforme. Una celda
+ * retirada con take() no la recibe ningún otro hilo.
+ *
+ * Los arreglos guardan cada valor XOR su valor inicial (la celda k de la franja s
+ * es k * STRIPES + s), así un arreglo recién asignado ya representa "todas
+ * libres" y crear el índice no recorre el tablero: en un tablero de 10000x10000
+ * el costo es solo la asignación. Los arreglos viven en el heap o fuera de él
+ * según el almacenamiento del tablero (ver IntCells); la memoria directa también
+ * llega en cero, así el truco vale igual.
+ */
+final class FreeCells {
+  private static final int STRIPES = 64;
+  private static final int SHIFT = Integer.numberOfTrailingZeros(STRIPES);
+
+  private final Stripe[] stripes = new Stripe[STRIPES];
+  // Posición de cada celda en el arreglo de su franja (-1 si no está libre),
+  // codificada con slot(); cada entrada solo la escribe el monitor de su franja
+  private final IntCells slotOf;
+
+  /**
+   * Crea el índice con todas las celdas libres.
+   */
+  FreeCells(int cellCount, Board.Storage storage) {
+    slotOf = IntCells.allocate(cellCount, storage);
+    for (int s = 0; s < STRIPES; s++) {
+      int capacity = cellCount > s ? ((cellCount - 1 - s) >>> SHIFT) + 1 : 0;
+      stripes[s] = new Stripe(s, IntCells.allocate(capacity, storage));
+    }
+  }
+
+  /**
+   * Vuelve a marcar todas las celdas como libres, igual que un índice recién
+   * creado. Solo con el tablero quieto (sin otros hilos usándolo).
+   */
+  void clear() {
+    slotOf.clear();
+    for (var stripe : stripes) {
+      synchronized (stripe) {
+        stripe.cells.clear();
+        stripe.size = stripe.cells.length();
+      }
+    }
+  }
+
+  // Decodifica/codifica la posición de una celda en su franja
+  private int slot(int index) {
+    return slotOf.getPlain(index) ^ (index >>> SHIFT);
+  }
+
+  private void setSlot(int index, int slot) {
+    slotOf.setPlain(index, slot ^ (index >>> SHIFT));
+  }
+
+  boolean contains(int index) {
+    var stripe = stripes[index & (STRIPES - 1)];
+    synchronized (stripe) {
+      return slot(index) >= 0;
+    }
+  }
+
+  /**
+   * Total aproximado bajo concurrencia (exacto en reposo).
+   */
+  int size() {
+    int total = 0;
+    for (var stripe : stripes)
+      total += stripe.size;
+    return total;
+  }
+
+  long offHeapBytes() {
+    long total = slotOf.offHeapBytes();
+    for (var stripe : stripes)
+      total += stripe.cells.offHeapBytes();
+    return total;
+  }
+
+  void add(int index) {
+    var stripe = stripes[index & (STRIPES - 1)];
+    synchronized (stripe) {
+      stripe.add(index);
+    }
+  }
+
+  /**
+   * Agrega la celda solo si el predicado dice que sigue vacía, evaluándolo bajo
+   * el monitor de su franja. Quien la ocupe después la retira con remove(), que
+   * espera ese monitor, así una celda liberada y reclamada enseguida por otro
+   * hilo no queda en el índice.
+   */
+  void addIf(int index, IntPredicate empty) {
+    var stripe = stripes[index & (STRIPES - 1)];
+    synchronized (stripe) {
+      if (empty.test(index))
+        stripe.add(index);
+    }
+  }
+
+  void remove(int index) {
+    var stripe = stripes[index & (STRIPES - 1)];
+    synchronized (stripe) {
+      stripe.remove(index);
+    }
+  }
+
+  /**
+   * Celda libre elegida uniformemente, sin retirarla del índice.
+   *
+   * @return índice de celda, o -1 si no hay celdas libres
+   */
+  int sample(RandomGenerator rnd) {
+    return pick(rnd, false);
+  }
+
+  /**
+   * Retira y retorna una celda libre elegida uniformemente.
+   *
+   * @return índice de celda, o -1 si no hay celdas libres
+   */
+  int take(RandomGenerator rnd) {
+    return pick(rnd, true);
+  }
+
+  private int pick(RandomGenerator rnd, boolean remove) {
+    while (true) {
+      int total = size();
+      if (total == 0)
+        return -1;
+      int r = rnd.nextInt(total);
+      for (var stripe : stripes) {
+        int n = stripe.size;
+        if (r >= n) {
+          r -= n;
+          continue;
+        }
+        synchronized (stripe) {
+          // Si la franja cambió desde la suma se reintenta el muestreo completo
+          if (stripe.size != n)
+            break;
+          int index = stripe.get(r);
+          if (remove)
+            stripe.remove(index);
+          return index;
+        }
+      }
+    }
+  }
+
+  private final class Stripe {
+    final int id;
+    final IntCells cells;
+    volatile int size;
+
+    Stripe(int id, IntCells cells) {
+      this.id = id;
+      this.cells = cells;
+      this.size = cells.length();
+    }
+
+    int get(int k) {
+      return cells.getPlain(k) ^ ((k << SHIFT) | id);
+    }
+
+    void set(int k, int index) {
+      cells.setPlain(k, index ^ ((k << SHIFT) | id));
+    }
+
+    // Bajo el monitor de la franja
+    void add(int index) {
+      if (slot(index) >= 0)
+        return;
+      set(size, index);
+      setSlot(index, size++);
+    }
+
+    // Bajo el monitor de la franja
+    void remove(int index) {
+      int slot = slot(index);
+      if (slot < 0)
+        return;
+      int last = get(--size);
+      set(slot, last);
+      setSlot(last, slot);
+      setSlot(index, -1);
+    }
+  }
+}
@@ -0,0 +1,160 @@
+package co.eci.snake.core;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Arreglo de enteros de tamaño fijo con accesos planos, volátiles y CAS, en el
+ * heap o en memoria directa fuera del heap (ver Board.Storage). Es el
+ * almacenamiento de todo lo que el tablero guarda por celda: la grilla de
+ * ocupación y los índices de FreeCells.
+ *
+ * Fuera del heap los enteros viven en un ByteBuffer directo alineado y se acceden
+ * con un VarHandle de vista, con la misma semántica de memoria que
+ * AtomicIntegerArray. El recolector no recorre ni copia esa memoria; se libera
+ * cuando el tablero deja de ser alcanzable. Como un ByteBuffer se indexa con
+ * int, caben hasta MAX_DIRECT_LENGTH enteros.
+ */
+abstract sealed class IntCells permits IntCells.Heap, IntCells.Direct {
+
+  /**
+   * Enteros que caben en un buffer directo (2 GiB, con margen para alinear).
+   */
+  static final int MAX_DIRECT_LENGTH = Integer.MAX_VALUE / Integer.BYTES - 1;
+
+  static IntCells allocate(int length, Board.Storage storage) {
+    return storage == Board.Storage.OFF_HEAP ? new Direct(length) : new Heap(length);
+  }
+
+  abstract int length();
+
+  abstract int get(int i);
+
+  abstract void set(int i, int value);
+
+  abstract int getPlain(int i);
+
+  abstract void setPlain(int i, int value);
+
+  abstract boolean compareAndSet(int i, int expected, int value);
+
+  /**
+   * Bytes fuera del heap (0 en el heap).
+   */
+  abstract long offHeapBytes();
+
+  /**
+   * Pone todo en cero. Solo sin otros hilos usando el arreglo.
+   */
+  void clear() {
+    for (int i = 0; i < length(); i++)
+      setPlain(i, 0);
+  }
+
+  static final class Heap extends IntCells {
+    private static final VarHandle INTS = MethodHandles.arrayElementVarHandle(int[].class);
+    private final int[] array;
+
+    Heap(int length) {
+      this.array = new int[length];
+    }
+
+    @Override
+    int length() {
+      return array.length;
+    }
+
+    @Override
+    int get(int i) {
+      return (int) INTS.getVolatile(array, i);
+    }
+
+    @Override
+    void set(int i, int value) {
+      INTS.setVolatile(array, i, value);
+    }
+
+    @Override
+    int getPlain(int i) {
+      return array[i];
+    }
+
+    @Override
+    void setPlain(int i, int value) {
+      array[i] = value;
+    }
+
+    @Override
+    boolean compareAndSet(int i, int expected, int value) {
+      return INTS.compareAndSet(array, i, expected, value);
+    }
+
+    @Override
+    long offHeapBytes() {
+      return 0;
+    }
+
+    @Override
+    void clear() {
+      Arrays.fill(array, 0);
+    }
+  }
+
+  static final class Direct extends IntCells {
+    private static final VarHandle INTS = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+    private final ByteBuffer buffer;
+    private final int length;
+
+    Direct(int length) {
+      if (length < 0 || length > MAX_DIRECT_LENGTH)
+        throw new IllegalArgumentException("Off-heap cell arrays hold at most " + MAX_DIRECT_LENGTH + " ints");
+      this.length = length;
+      // allocateDirect entrega memoria en cero; los accesos atómicos exigen
+      // direcciones alineadas al tamaño del entero
+      this.buffer = ByteBuffer.allocateDirect(length * Integer.BYTES + Integer.BYTES).alignedSlice(Integer.BYTES);
+    }
+
+    // El VarHandle valida el índice contra los límites del buffer
+    private static int offset(int i) {
+      return i * Integer.BYTES;
+    }
+
+    @Override
+    int length() {
+      return length;
+    }
+
+    @Override
+    int get(int i) {
+      return (int) INTS.getVolatile(buffer, offset(i));
+    }
+
+    @Override
+    void set(int i, int value) {
+      INTS.setVolatile(buffer, offset(i), value);
+    }
+
+    @Override
+    int getPlain(int i) {
+      return (int) INTS.get(buffer, offset(i));
+    }
+
+    @Override
+    void setPlain(int i, int value) {
+      INTS.set(buffer, offset(i), value);
+    }
+
+    @Override
+    boolean compareAndSet(int i, int expected, int value) {
+      return INTS.compareAndSet(buffer, offset(i), expected, value);
+    }
+
+    @Override
+    long offHeapBytes() {
+      return buffer.capacity();
+    }
+  }
+}
@@ -0,0 +1,167 @@
+package co.eci.snake.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Clasificación en vivo de un tablero: serpientes vivas ordenadas por longitud y
+ * el orden completo de las muertes.
+ *
+ * El tablero la actualiza solo cuando una serpiente crece (al comer, o en sus
+ * primeros pasos) o muere, dentro del monitor de esa serpiente, así las
+ * actualizaciones de una misma serpiente nunca se cruzan. Las vivas están en un
+ * ConcurrentSkipListSet de claves (longitud, id) empaquetadas en un long:
+ * actualizar es O(log n). Tras cada cambio se publica una copia inmutable de las
+ * primeras K posiciones, así la UI lee el podio en O(1), en cualquier momento,
+ * sin pausar el juego ni tomar el candado de ninguna serpiente.
+ */
+public final class Leaderboard {
+  /**
+   * Posición de una serpiente con su longitud al momento del cambio.
+   */
+  public record Standing(Snake snake, int length) {
+  }
+
+  // Copia publicada del podio con la versión de los cambios que refleja
+  private record Podium(long version, List<Standing> standings) {
+  }
+
+  private final int size;
+  // Clave = longitud en los 32 bits altos y (MAX - id) en los bajos: en orden
+  // descendente primero la más larga y, entre iguales, la de menor id
+  private final ConcurrentSkipListSet<Long> alive = new ConcurrentSkipListSet<>();
+  private final ConcurrentHashMap<Integer, Snake> byId = new ConcurrentHashMap<>();
+  private final ConcurrentLinkedQueue<Standing> deaths = new ConcurrentLinkedQueue<>();
+  private final AtomicReference<Standing> firstDead = new AtomicReference<>();
+  // Contadores aparte: size() del skip list recorre toda la lista
+  private final AtomicInteger aliveCount = new AtomicInteger();
+  private final AtomicInteger deathCount = new AtomicInteger();
+  private final AtomicLong version = new AtomicLong();
+  private final AtomicReference<Podium> podium = new AtomicReference<>(new Podium(0, List.of()));
+
+  /**
+   * @param size posiciones publicadas en top()
+   */
+  public Leaderboard(int size) {
+    if (size <= 0)
+      throw new IllegalArgumentException("size must be positive");
+    this.size = size;
+  }
+
+  private static long key(int length, int id) {
+    return ((long) length << 32) | (Integer.MAX_VALUE - id);
+  }
+
+  // Llamados por Snake dentro de su monitor
+
+  void add(Snake snake, int length, boolean dead, boolean publish) {
+    byId.put(snake.id(), snake);
+    if (dead) {
+      recordDeath(snake, length);
+    } else {
+      alive.add(key(length, snake.id()));
+      aliveCount.incrementAndGet();
+    }
+    if (publish)
+      publish();
+  }
+
+  void grew(Snake snake, int from, int to) {
+    alive.remove(key(from, snake.id()));
+    alive.add(key(to, snake.id()));
+    publish();
+  }
+
+  void died(Snake snake, int length) {
+    if (alive.remove(key(length, snake.id())))
+      aliveCount.decrementAndGet();
+    recordDeath(snake, length);
+    publish();
+  }
+
+  private void recordDeath(Snake snake, int length) {
+    var standing = new Standing(snake, length);
+    deaths.add(standing);
+    deathCount.incrementAndGet();
+    firstDead.compareAndSet(null, standing);
+  }
+
+  /**
+   * Vacía la clasificación (ver Board.reset).
+   */
+  void clear() {
+    alive.clear();
+    byId.clear();
+    deaths.clear();
+    firstDead.set(null);
+    aliveCount.set(0);
+    deathCount.set(0);
+    publish();
+  }
+
+  // Recalcula el podio y lo publica salvo que otro hilo ya publicó uno más nuevo.
+  // La versión se toma después del cambio, así la copia incluye todos los cambios
+  // con versión menor o igual. Board.registerAll lo llama una vez tras muchas altas
+  void publish() {
+    long v = version.incrementAndGet();
+    var top = new ArrayList<Standing>(size);
+    for (long k : alive.descendingSet()) {
+      var snake = byId.get(Integer.MAX_VALUE - (int) k);
+      if (snake != null)
+        top.add(new Standing(snake, (int) (k >>> 32)));
+      if (top.size() == size)
+        break;
+    }
+    var next = new Podium(v, Collections.unmodifiableList(top));
+    Podium current;
+    do {
+      current = podium.get();
+      if (current.version() >= v)
+        return;
+    } while (!podium.compareAndSet(current, next));
+  }
+
+  /**
+   * Las serpientes vivas más largas, de la primera a la K-ésima. O(1).
+   */
+  public List<Standing> top() {
+    return podium.get().standings();
+  }
+
+  /**
+   * La serpiente viva más larga, o null si no queda ninguna.
+   */
+  public Standing leader() {
+    var top = top();
+    return top.isEmpty() ? null : top.get(0);
+  }
+
+  /**
+   * La primera serpiente en morir con su longitud al morir, o null.
+   */
+  public Standing firstDead() {
+    return firstDead.get();
+  }
+
+  /**
+   * Todas las muertes en orden, con la longitud de cada serpiente al morir.
+   */
+  public List<Standing> deaths() {
+    return List.copyOf(deaths);
+  }
+
+  public int aliveCount() {
+    return aliveCount.get();
+  }
+
+  public int deathCount() {
+    return deathCount.get();
+  }
+}
@@ -0,0 +1,106 @@
+package co.eci.snake.core;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Arreglo de longs con accesos volátiles y CAS, en el heap o fuera de él: las
+ * palabras de los bitsets de ítems (ver CellSet). Mismo esquema que IntCells.
+ */
+abstract sealed class LongCells permits LongCells.Heap, LongCells.Direct {
+
+  static final int MAX_DIRECT_LENGTH = Integer.MAX_VALUE / Long.BYTES - 1;
+
+  static LongCells allocate(int length, Board.Storage storage) {
+    return storage == Board.Storage.OFF_HEAP ? new Direct(length) : new Heap(length);
+  }
+
+  abstract int length();
+
+  abstract long get(int i);
+
+  abstract void setPlain(int i, long value);
+
+  abstract boolean compareAndSet(int i, long expected, long value);
+
+  abstract long offHeapBytes();
+
+  static final class Heap extends LongCells {
+    private static final VarHandle LONGS = MethodHandles.arrayElementVarHandle(long[].class);
+    private final long[] array;
+
+    Heap(int length) {
+      this.array = new long[length];
+    }
+
+    @Override
+    int length() {
+      return array.length;
+    }
+
+    @Override
+    long get(int i) {
+      return (long) LONGS.getVolatile(array, i);
+    }
+
+    @Override
+    void setPlain(int i, long value) {
+      array[i] = value;
+    }
+
+    @Override
+    boolean compareAndSet(int i, long expected, long value) {
+      return LONGS.compareAndSet(array, i, expected, value);
+    }
+
+    @Override
+    long offHeapBytes() {
+      return 0;
+    }
+  }
+
+  static final class Direct extends LongCells {
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+    private final ByteBuffer buffer;
+    private final int length;
+
+    Direct(int length) {
+      if (length < 0 || length > MAX_DIRECT_LENGTH)
+        throw new IllegalArgumentException("Off-heap word arrays hold at most " + MAX_DIRECT_LENGTH + " longs");
+      this.length = length;
+      this.buffer = ByteBuffer.allocateDirect(length * Long.BYTES + Long.BYTES).alignedSlice(Long.BYTES);
+    }
+
+    // El VarHandle valida el índice contra los límites del buffer
+    private static int offset(int i) {
+      return i * Long.BYTES;
+    }
+
+    @Override
+    int length() {
+      return length;
+    }
+
+    @Override
+    long get(int i) {
+      return (long) LONGS.getVolatile(buffer, offset(i));
+    }
+
+    @Override
+    void setPlain(int i, long value) {
+      LONGS.set(buffer, offset(i), value);
+    }
+
+    @Override
+    boolean compareAndSet(int i, long expected, long value) {
+      return LONGS.compareAndSet(buffer, offset(i), expected, value);
+    }
+
+    @Override
+    long offHeapBytes() {
+      return buffer.capacity();
+    }
+  }
+}
@@ -1,24 +1,104 @@
 package co.eci.snake.core;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.util.ArrayDeque;
 import java.util.Deque;
-// Se implementan las colas concurrentes para que sean seguras para hilos
-import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import co.eci.snake.metrics.MonitorWaitEvent;
+import co.eci.snake.metrics.SimulationMetrics;
 
 public final class Snake {
-  // Se implementa la cola concurrente para que sea segura para hilos
-  private final Deque<Position> body = new ConcurrentLinkedDeque<>();
+  // Identificadores únicos (> 0) usados como dueños de celda en la grilla del tablero
+  private static final AtomicInteger NEXT_ID = new AtomicInteger(1);
+  private static final int INITIAL_CAPACITY = 8;
+  // Longitud máxima de una serpiente nueva (crece al comer)
+  private static final int START_MAX_LENGTH = 5;
+  private static final VarHandle SEQ;
+
+  static {
+    try {
+      SEQ = MethodHandles.lookup().findVarHandle(Snake.class, "seq", long.class);
+    } catch (ReflectiveOperationException e) {
+      throw new ExceptionInInitializerError(e);
+    }
+  }
+
+  private final int id = NEXT_ID.getAndIncrement();
+  // Tablero cuya grilla de ocupación se mantiene al avanzar (null si no está registrada)
+  private volatile Board board;
+  // Cuerpo como buffer circular de celdas empaquetadas (ver Cell): ring[head] es la
+  // cabeza y los siguientes length elementos (módulo capacidad) llegan hasta la cola.
+  // Mover cuesta O(1) y no asigna nodos; solo crece al duplicar la capacidad.
+  private int[] ring = new int[INITIAL_CAPACITY];
+  private int head = 0;
+  private int length = 1;
+  // Seqlock: impar mientras advance() escribe. Los lectores copian sin bloquear y
+  // reintentan si la secuencia cambió durante la copia.
+  private volatile long seq = 0;
   private volatile Direction direction;
-  private int maxLength = 5;
-  private boolean dead = false;
+  private int maxLength = START_MAX_LENGTH;
+  private volatile boolean dead = false;
 
-  private Snake(Position start, Direction dir) {
-    body.addFirst(start);
+  private Snake(int start, Direction dir) {
+    ring[0] = start;
     this.direction = dir;
   }
 
   public static Snake of(int x, int y, Direction dir) {
-    return new Snake(new Position(x, y), dir);
+    return new Snake(Cell.pack(x, y), dir);
+  }
+
+  /**
+   * Deja la serpiente como una nueva creada con Snake.of(x, y, dir), pero con su
+   * mismo id y su buffer: para correr muchas carreras seguidas sin asignar
+   * serpientes (ver Tournament). Queda fuera de todo tablero y hay que volver a
+   * registrarla, normalmente en uno reiniciado con Board.reset. Solo cuando ningún
+   * otro hilo la usa.
+   */
+  public synchronized void reset(int x, int y, Direction dir) {
+    beginWrite();
+    try {
+      head = 0;
+      length = 1;
+      ring[0] = Cell.pack(x, y);
+      maxLength = START_MAX_LENGTH;
+    } finally {
+      endWrite();
+    }
+    direction = dir;
+    dead = false;
+    board = null;
+  }
+
+  /**
+   * Reconstruye una serpiente guardada en un checkpoint.
+   *
+   * @param body celdas empaquetadas de la cabeza a la cola (se copian)
+   */
+  static Snake restore(int[] body, int length, Direction dir, int maxLength, boolean dead) {
+    if (length < 1 || length > body.length || maxLength < length)
+      throw new IllegalArgumentException("Invalid snake body: length " + length + ", max " + maxLength);
+    var snake = new Snake(body[0], dir);
+    int capacity = Math.max(INITIAL_CAPACITY, Integer.highestOneBit(length - 1) << 1);
+    snake.ring = new int[capacity];
+    System.arraycopy(body, 0, snake.ring, 0, length);
+    snake.length = length;
+    snake.maxLength = maxLength;
+    snake.dead = dead;
+    return snake;
+  }
+
+  /**
+   * Longitud máxima actual (crece al comer ratones).
+   */
+  synchronized int maxLength() {
+    return maxLength;
+  }
+
+  public int id() {
+    return id;
   }
 
   public Direction direction() {
@@ -36,35 +116,220 @@ public final class Snake {
     this.direction = dir;
   }
 
-  public synchronized Position head() {
-    return body.peekFirst();
+  /**
+   * Fija la dirección sin la restricción de giro en U. La usa la reproducción de
+   * grabaciones, donde varios giros entre dos ticks quedan como un solo cambio.
+   */
+  public synchronized void face(Direction dir) {
+    this.direction = dir;
+  }
+
+  public Position head() {
+    return Cell.toPosition(headCell());
+  }
+
+  /**
+   * Cabeza empaquetada (ver Cell), sin bloquear ni asignar objetos.
+   */
+  public int headCell() {
+    while (true) {
+      long s = beginRead();
+      int[] r = ring;
+      int h = head;
+      int cell = h < r.length ? r[h] : 0;
+      if (validate(s))
+        return cell;
+    }
   }
 
   // REQUISITO: Retorna una copia profunda para que la UI no vea estados
   // intermedios
-  public synchronized Deque<Position> snapshot() {
-    return new ArrayDeque<>(body);
+  public Deque<Position> snapshot() {
+    int[] cells = new int[INITIAL_CAPACITY];
+    int n;
+    while ((n = copyBody(cells)) > cells.length)
+      cells = new int[Integer.highestOneBit(n) << 1];
+    var copy = new ArrayDeque<Position>(n);
+    for (int i = 0; i < n; i++)
+      copy.addLast(Cell.toPosition(cells[i]));
+    return copy;
+  }
+
+  /**
+   * Copia el cuerpo (de la cabeza a la cola, como celdas empaquetadas) en el
+   * buffer del llamador sin bloquear ni asignar. La copia es consistente: nunca
+   * mezcla dos estados del cuerpo.
+   *
+   * @return la longitud del cuerpo; si es mayor que dst.length solo se copiaron
+   *         los primeros dst.length segmentos y el llamador debe ampliar el buffer
+   */
+  public int copyBody(int[] dst) {
+    return copyBody(dst, 0);
+  }
+
+  /**
+   * Igual que {@link #copyBody(int[])} pero escribiendo desde dst[offset]; copia
+   * como máximo dst.length - offset segmentos.
+   */
+  public int copyBody(int[] dst, int offset) {
+    while (true) {
+      long s = beginRead();
+      int[] r = ring;
+      int h = head;
+      int n = length;
+      // Lecturas mezcladas con una escritura en curso se descartan al validar
+      if (n <= r.length && h < r.length) {
+        int count = Math.min(n, dst.length - offset);
+        int first = Math.min(count, r.length - h);
+        System.arraycopy(r, h, dst, offset, first);
+        System.arraycopy(r, 0, dst, offset + first, count - first);
+      }
+      if (validate(s))
+        return n;
+    }
   }
 
   // REQUISITO: Región crítica para la actualización del cuerpo
-  public synchronized void advance(Position newHead, boolean grow) {
-    body.addFirst(newHead);
-    if (grow)
-      maxLength++;
-    while (body.size() > maxLength)
-      body.removeLast();
+  // La grilla de ocupación del tablero se actualiza dentro de la misma región
+  // (el monitor solo excluye escritores; los lectores usan el seqlock)
+  public void advance(Position newHead, boolean grow) {
+    advance(Cell.of(newHead), grow);
   }
 
+  /**
+   * Avanza con la nueva cabeza empaquetada (ver Cell). O(1) amortizado.
+   * El tiempo de espera por el monitor se reporta en SimulationMetrics.
+   */
+  public void advance(int newHead, boolean grow) {
+    // El evento mide desde el pedido del monitor hasta obtenerlo
+    var event = new MonitorWaitEvent();
+    event.begin();
+    long requested = System.nanoTime();
+    synchronized (this) {
+      event.end();
+      SimulationMetrics.get().recordMonitorWait(event, id, System.nanoTime() - requested);
+      advanceLocked(newHead, grow);
+    }
+  }
+
+  private void advanceLocked(int newHead, boolean grow) {
+    int vacated = -1;
+    int before = length;
+    beginWrite();
+    try {
+      if (grow)
+        maxLength++;
+      if (length == ring.length && length < maxLength)
+        growRing();
+      int mask = ring.length - 1;
+      head = (head - 1) & mask;
+      if (length < ring.length) {
+        length++;
+      } else {
+        // Buffer lleno con length == maxLength: la nueva cabeza pisa la cola
+        vacated = ring[head];
+      }
+      ring[head] = newHead;
+      if (length > maxLength) {
+        vacated = ring[(head + length - 1) & mask];
+        length--;
+      }
+    } finally {
+      endWrite();
+    }
+    // La grilla se actualiza fuera de la escritura para no hacer esperar a los lectores
+    var b = board;
+    if (b != null) {
+      b.occupy(newHead, id);
+      b.record(ChangeLog.Type.HEAD_PUSHED, id, newHead);
+      if (vacated != -1)
+        b.vacate(vacated, id);
+      if (length != before)
+        b.leaderboard().grew(this, before, length);
+    }
+  }
+
+  private void growRing() {
+    int[] bigger = new int[ring.length << 1];
+    int first = ring.length - head;
+    System.arraycopy(ring, head, bigger, 0, Math.min(first, length));
+    if (length > first)
+      System.arraycopy(ring, 0, bigger, first, length - first);
+    head = 0;
+    ring = bigger;
+  }
+
+  /**
+   * Asocia la serpiente a un tablero y marca su cuerpo actual en la grilla.
+   */
+  synchronized void attach(Board board) {
+    attach(board, true);
+  }
+
+  /**
+   * @param publish false para que la clasificación no publique el podio todavía
+   *                (ver Board.registerAll)
+   */
+  synchronized void attach(Board board, boolean publish) {
+    if (this.board == board)
+      return;
+    this.board = board;
+    int mask = ring.length - 1;
+    for (int k = 0; k < length; k++)
+      board.occupy(ring[(head + k) & mask], id);
+    board.leaderboard().add(this, length, dead, publish);
+  }
+
+  boolean isAttachedTo(Board board) {
+    return this.board == board;
+  }
+
+  /**
+   * Marca la serpiente como muerta; solo la primera llamada emite SNAKE_DIED.
+   */
   public synchronized void die() {
+    if (dead)
+      return;
     this.dead = true;
+    var b = board;
+    if (b != null) {
+      b.record(ChangeLog.Type.SNAKE_DIED, id, ring[head]);
+      b.leaderboard().died(this, length);
+    }
   }
 
-  public synchronized boolean isDead() {
+  public boolean isDead() {
     return dead;
   }
 
-  public synchronized int getLength() {
-    return body.size();
+  public int getLength() {
+    while (true) {
+      long s = beginRead();
+      int n = length;
+      if (validate(s))
+        return n;
+    }
+  }
+
+  // Escritor único (bajo el monitor): secuencia impar durante la escritura
+  private void beginWrite() {
+    SEQ.setOpaque(this, seq + 1);
+    VarHandle.storeStoreFence();
+  }
+
+  private void endWrite() {
+    SEQ.setRelease(this, seq + 1);
   }
 
+  private long beginRead() {
+    long s;
+    while (((s = (long) SEQ.getAcquire(this)) & 1) != 0)
+      Thread.onSpinWait();
+    return s;
+  }
+
+  private boolean validate(long s) {
+    VarHandle.loadLoadFence();
+    return (long) SEQ.getAcquire(this) == s;
+  }
 }
@@ -0,0 +1,298 @@
+package co.eci.snake.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import co.eci.snake.core.Board.Item;
+
+/**
+ * Generador de mundos con semilla: llena un tablero nuevo con ratones,
+ * obstáculos y turbos según densidades por celda, crea los pares de teleport y
+ * coloca las serpientes en celdas distintas y vacías, repartidas por todo el
+ * tablero.
+ *
+ * El tablero se parte en baldosas de 64x64 celdas que se llenan en paralelo
+ * sobre un ForkJoinPool. Cada baldosa tiene su propio SplittableRandom derivado
+ * de la semilla y de su número, y recibe una cuota de serpientes proporcional a
+ * su área, así el resultado depende solo de la semilla y de la configuración,
+ * no del número de hilos. Los ítems se colocan con saltos geométricos (el costo
+ * es proporcional a los ítems, no a las celdas); al final el índice de celdas
+ * libres se pone al día en un orden fijo (ver Board.indexItems) y las
+ * serpientes se crean en orden, así sus ids y los reabastecimientos posteriores
+ * también son reproducibles.
+ *
+ * A diferencia de new Board(width, height, seed), que coloca unos pocos ítems
+ * uno por uno, la cantidad de ítems crece con el tablero.
+ */
+public final class WorldGenerator {
+  private static final int TILE = 64;
+  // Baldosas por tarea hoja del pool
+  private static final int TILES_PER_TASK = 4;
+  // Mezcla de la semilla con el número de baldosa (razón áurea de 64 bits)
+  private static final long GOLDEN = 0x9E3779B97F4A7C15L;
+  private static final Direction[] DIRECTIONS = Direction.values();
+
+  // Densidades por celda; los valores por defecto dan en promedio los 6 ratones,
+  // 4 obstáculos y 3 turbos de un tablero de 35x28 (el de la interfaz)
+  private double mice = 0.006;
+  private double obstacles = 0.004;
+  private double turbo = 0.003;
+  private int teleportPairs = 2;
+  private int snakeCount = 0;
+  private ForkJoinPool pool = ForkJoinPool.commonPool();
+
+  /**
+   * Mundo generado: el tablero con las serpientes ya registradas.
+   */
+  public record World(Board board, List<Snake> snakes) {
+  }
+
+  /**
+   * Fracción de celdas con ratón, entre 0 y 1.
+   */
+  public WorldGenerator mice(double density) {
+    this.mice = density;
+    return this;
+  }
+
+  public WorldGenerator obstacles(double density) {
+    this.obstacles = density;
+    return this;
+  }
+
+  public WorldGenerator turbo(double density) {
+    this.turbo = density;
+    return this;
+  }
+
+  /**
+   * Pares de teleport; en tableros pequeños se crean solo los que caben con
+   * holgura (a lo sumo una celda de cada cuatro).
+   */
+  public WorldGenerator teleportPairs(int pairs) {
+    this.teleportPairs = pairs;
+    return this;
+  }
+
+  public WorldGenerator snakes(int count) {
+    this.snakeCount = count;
+    return this;
+  }
+
+  /**
+   * Pool en el que se llenan las baldosas (por defecto el común); no cambia el
+   * resultado.
+   */
+  public WorldGenerator pool(ForkJoinPool pool) {
+    this.pool = Objects.requireNonNull(pool, "pool");
+    return this;
+  }
+
+  public World generate(int width, int height, long seed) {
+    return generate(width, height, seed, Board.Storage.HEAP);
+  }
+
+  /**
+   * Genera el mundo. La misma semilla y configuración producen los mismos ítems,
+   * teleports, serpientes (posición, dirección y orden) y reabastecimientos.
+   *
+   * @throws IllegalStateException si las serpientes no caben en las celdas vacías
+   */
+  public World generate(int width, int height, long seed, Board.Storage storage) {
+    if (mice < 0 || obstacles < 0 || turbo < 0 || mice + obstacles + turbo > 1)
+      throw new IllegalArgumentException("Densities must be non-negative and add up to at most 1");
+    if (teleportPairs < 0 || snakeCount < 0)
+      throw new IllegalArgumentException("teleport pairs and snakes must not be negative");
+    var board = Board.empty(width, height, new Random(seed), storage);
+    var rnd = new SplittableRandom(seed);
+    placeTeleports(board, rnd);
+
+    var plan = new Plan(board, seed);
+    pool.invoke(plan.new TileTask(0, plan.tiles));
+    board.indexItems();
+
+    // Las serpientes que no cupieron en su baldosa van a celdas libres de todo
+    // el tablero, en orden y con la fuente del tablero
+    for (int k = 0; k < snakeCount; k++) {
+      if (plan.spawn[k] >= 0)
+        board.reserve(plan.spawn[k]);
+    }
+    for (int k = 0; k < snakeCount; k++) {
+      if (plan.spawn[k] >= 0)
+        continue;
+      int index = board.takeFree();
+      if (index < 0)
+        throw new IllegalStateException("Board " + width + "x" + height + " has no room for " + snakeCount
+            + " snakes");
+      plan.spawn[k] = index;
+      plan.dirs[k] = (byte) rnd.nextInt(DIRECTIONS.length);
+    }
+    var snakes = new ArrayList<Snake>(snakeCount);
+    for (int k = 0; k < snakeCount; k++) {
+      int index = plan.spawn[k];
+      snakes.add(Snake.of(index % width, index / width, DIRECTIONS[plan.dirs[k]]));
+    }
+    board.registerAll(snakes);
+    return new World(board, snakes);
+  }
+
+  // Secuencial y antes que las baldosas: los pares cruzan baldosas
+  private void placeTeleports(Board board, SplittableRandom rnd) {
+    int cells = board.width() * board.height();
+    int pairs = Math.min(teleportPairs, cells / 4);
+    int[] packed = new int[pairs * 2];
+    for (int k = 0; k < packed.length; k++) {
+      int cell;
+      do {
+        int index = rnd.nextInt(cells);
+        cell = Cell.pack(index % board.width(), index / board.width());
+      } while (contains(packed, k, cell));
+      packed[k] = cell;
+    }
+    board.restoreTeleports(packed);
+  }
+
+  private static boolean contains(int[] cells, int count, int cell) {
+    for (int k = 0; k < count; k++) {
+      if (cells[k] == cell)
+        return true;
+    }
+    return false;
+  }
+
+  // Celdas sin ítem antes del siguiente ítem, saturado en limit
+  private static int skip(SplittableRandom rnd, double logMiss, int limit) {
+    double gap = Math.log(1.0 - rnd.nextDouble()) / logMiss;
+    return gap >= limit ? limit : (int) gap;
+  }
+
+  // Memoria de trabajo de una tarea hoja, reutilizada entre sus baldosas
+  private static final class Scratch {
+    final long[] chosen = new long[TILE * TILE / 64];
+    final int[] cells = new int[TILE * TILE];
+  }
+
+  // Geometría de las baldosas y resultado de las serpientes; cada baldosa escribe
+  // solo sus propias posiciones de spawn y dirs
+  private final class Plan {
+    final Board board;
+    final long seed;
+    final int width;
+    final int height;
+    final int tilesX;
+    final int tiles;
+    // Serpientes de la baldosa t: [quota[t], quota[t + 1])
+    final int[] quota;
+    final int[] spawn;
+    final byte[] dirs;
+
+    Plan(Board board, long seed) {
+      this.board = board;
+      this.seed = seed;
+      this.width = board.width();
+      this.height = board.height();
+      this.tilesX = (width + TILE - 1) / TILE;
+      this.tiles = tilesX * ((height + TILE - 1) / TILE);
+      this.quota = new int[tiles + 1];
+      long cells = (long) width * height;
+      long covered = 0;
+      for (int t = 0; t < tiles; t++) {
+        covered += (long) tileWidth(t) * tileHeight(t);
+        quota[t + 1] = (int) (snakeCount * covered / cells);
+      }
+      this.spawn = new int[snakeCount];
+      this.dirs = new byte[snakeCount];
+      Arrays.fill(spawn, -1);
+    }
+
+    int tileWidth(int t) {
+      return Math.min(TILE, width - (t % tilesX) * TILE);
+    }
+
+    int tileHeight(int t) {
+      return Math.min(TILE, height - (t / tilesX) * TILE);
+    }
+
+    void fill(int t, Scratch scratch) {
+      var rnd = new SplittableRandom(seed ^ ((t + 1L) * GOLDEN));
+      int x0 = (t % tilesX) * TILE, y0 = (t / tilesX) * TILE;
+      int tw = tileWidth(t), th = tileHeight(t);
+      int area = tw * th;
+
+      // Ítems: el salto hasta la siguiente celda con ítem es geométrico
+      double density = mice + obstacles + turbo;
+      if (density > 0) {
+        double logMiss = Math.log1p(-density);
+        for (int k = skip(rnd, logMiss, area); k < area; k += 1 + skip(rnd, logMiss, area)) {
+          int index = (y0 + k / tw) * width + x0 + k % tw;
+          if (board.hasItem(index))
+            continue; // teleport
+          double r = rnd.nextDouble() * density;
+          board.placeItem(r < mice ? Item.MOUSE : r < mice + obstacles ? Item.OBSTACLE : Item.TURBO, index);
+        }
+      }
+
+      // Serpientes: con pocas por baldosa basta con sortear celdas y descartar las
+      // que tienen ítem o ya salieron; si hay demasiados descartes (baldosa muy
+      // llena) se sortea sin reemplazo entre todas las celdas vacías restantes
+      int from = quota[t], count = quota[t + 1] - from;
+      if (count == 0)
+        return;
+      long[] chosen = scratch.chosen;
+      Arrays.fill(chosen, 0L);
+      int placed = 0;
+      for (int tries = 0; placed < count && tries < 4 * count + 16; tries++) {
+        int k = rnd.nextInt(area);
+        int index = (y0 + k / tw) * width + x0 + k % tw;
+        if ((chosen[k >>> 6] & (1L << k)) != 0 || board.hasItem(index))
+          continue;
+        chosen[k >>> 6] |= 1L << k;
+        spawn[from + placed] = index;
+        dirs[from + placed++] = (byte) rnd.nextInt(DIRECTIONS.length);
+      }
+      if (placed == count)
+        return;
+      int[] cells = scratch.cells;
+      int candidates = 0;
+      for (int k = 0; k < area; k++) {
+        int index = (y0 + k / tw) * width + x0 + k % tw;
+        if ((chosen[k >>> 6] & (1L << k)) == 0 && !board.hasItem(index))
+          cells[candidates++] = index;
+      }
+      for (; placed < count && candidates > 0; placed++) {
+        int j = rnd.nextInt(candidates);
+        spawn[from + placed] = cells[j];
+        cells[j] = cells[--candidates];
+        dirs[from + placed] = (byte) rnd.nextInt(DIRECTIONS.length);
+      }
+    }
+
+    final class TileTask extends RecursiveAction {
+      private final int from;
+      private final int to;
+
+      TileTask(int from, int to) {
+        this.from = from;
+        this.to = to;
+      }
+
+      @Override
+      protected void compute() {
+        if (to - from <= TILES_PER_TASK) {
+          var scratch = new Scratch();
+          for (int t = from; t < to; t++)
+            fill(t, scratch);
+          return;
+        }
+        int mid = (from + to) >>> 1;
+        invokeAll(new TileTask(from, mid), new TileTask(mid, to));
+      }
+    }
+  }
+}
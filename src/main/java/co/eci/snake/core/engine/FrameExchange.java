@@ -0,0 +1,67 @@
+package co.eci.snake.core.engine;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Triple buffer de cuadros entre un productor (simulación) y un consumidor (EDT).
+ * El productor llena back() y lo publica; el consumidor toma el último cuadro
+ * publicado con acquire(). Cada cuadro pertenece siempre a uno solo de los tres
+ * roles y el intercambio es un único getAndSet, así ninguno de los dos lados se
+ * bloquea ni asigna cuadros nuevos.
+ *
+ * Con indexTiles el productor construye además el TileIndex de cada cuadro al
+ * publicarlo, así el consumidor (el EDT) no paga un costo proporcional al mundo.
+ */
+public final class FrameExchange {
+
+    private final AtomicReference<WorldFrame> ready = new AtomicReference<>(new WorldFrame());
+    private WorldFrame back = new WorldFrame();   // solo productor
+    private WorldFrame front = new WorldFrame();  // solo consumidor
+    private long published = 0;                   // solo productor
+    private final boolean indexTiles;
+
+    public FrameExchange() {
+        this(false);
+    }
+
+    /**
+     * @param indexTiles true para indexar cada cuadro por baldosas al publicarlo
+     *                   (ver WorldFrame.tiles)
+     */
+    public FrameExchange(boolean indexTiles) {
+        this.indexTiles = indexTiles;
+    }
+
+    public boolean indexesTiles() {
+        return indexTiles;
+    }
+
+    /**
+     * Cuadro que el productor puede llenar.
+     */
+    public WorldFrame back() {
+        return back;
+    }
+
+    /**
+     * Publica el cuadro trasero y recupera otro para el siguiente llenado.
+     */
+    public void publish() {
+        if (indexTiles) {
+            back.indexTiles();
+        }
+        back.setSequence(++published);
+        back = ready.getAndSet(back);
+    }
+
+    /**
+     * Último cuadro publicado (o el anterior si no hay uno más nuevo). Válido
+     * hasta la siguiente llamada a acquire().
+     */
+    public WorldFrame acquire() {
+        if (ready.get().sequence() > front.sequence()) {
+            front = ready.getAndSet(front);
+        }
+        return front;
+    }
+}
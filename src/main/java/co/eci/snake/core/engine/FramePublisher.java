@@ -0,0 +1,50 @@
+package co.eci.snake.core.engine;
+
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+import co.eci.snake.core.Board;
+import co.eci.snake.core.Snake;
+
+/**
+ * Captura periódicamente el mundo en un FrameExchange desde un hilo propio, para
+ * el modo en que cada serpiente corre en su propio hilo (sin ticks globales).
+ * Con el LockstepEngine se publica en cambio al final de cada tick.
+ */
+public final class FramePublisher implements Runnable {
+
+    private final Board board;
+    private final List<Snake> snakes;
+    private final FrameExchange exchange;
+    private final long periodNanos;
+
+    public FramePublisher(Board board, List<Snake> snakes, FrameExchange exchange, int fps) {
+        this.board = board;
+        this.snakes = snakes;
+        this.exchange = exchange;
+        this.periodNanos = 1_000_000_000L / fps;
+    }
+
+    /**
+     * Captura y publica un cuadro.
+     */
+    public void publishOnce() {
+        exchange.back().capture(board, snakes);
+        exchange.publish();
+    }
+
+    @Override
+    public void run() {
+        long next = System.nanoTime();
+        while (!Thread.currentThread().isInterrupted()) {
+            publishOnce();
+            next += periodNanos;
+            long wait = next - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            } else {
+                next = System.nanoTime();
+            }
+        }
+    }
+}
@@ -1,19 +1,59 @@
 package co.eci.snake.core.engine;
 
-import javax.swing.Timer;
-import java.awt.event.ActionListener;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.swing.SwingUtilities;
 
 import co.eci.snake.core.sync.PauseController;
+import co.eci.snake.metrics.FrameEvent;
+import co.eci.snake.metrics.SimulationMetrics;
 
 /**
- * El GameClock actúa como el motor de refresco de la interfaz.
- * Utiliza un Timer de Swing que es seguro para hilos de UI.
+ * El GameClock actúa como el motor de refresco de la interfaz, con su propio
+ * ritmo e independiente del paso de las serpientes.
+ *
+ * Un hilo de marcapasos calcula los plazos de cuadro con System.nanoTime() sobre
+ * una grilla fija (el siguiente plazo es el anterior más el período, sin deriva)
+ * y entrega cada cuadro al EDT con invokeLater. Nunca hay más de un cuadro en la
+ * cola del EDT: si el anterior todavía no corrió, el nuevo se fusiona con él y
+ * el EDT dibuja solo el más reciente. Si el marcapasos despierta tarde se saltan
+ * los plazos perdidos en lugar de ponerse al día en ráfaga.
+ *
+ * Cada cuadro recibe su plazo en la grilla, no la hora a la que el EDT lo corrió,
+ * así quien interpola el movimiento entre pasos de la simulación (ver
+ * GamePanel.interpolate) avanza en intervalos parejos aunque el EDT se atrase.
  */
 public final class GameClock {
 
-    private final Timer timer;
-    private final int fps;
+    /**
+     * Acción de un cuadro; corre en el EDT.
+     */
+    @FunctionalInterface
+    public interface FrameTask {
+        /**
+         * @param frameNanos plazo del cuadro en la escala de System.nanoTime()
+         */
+        void onFrame(long frameNanos);
+    }
+
+    private final FrameTask onFrame;
     private final PauseController pauseController;
+    private volatile long periodNanos;
+    private volatile boolean running = false;
+    private Thread pacer;
+
+    // Un solo cuadro pendiente en el EDT; el marcapasos actualiza su plazo
+    private final AtomicBoolean pending = new AtomicBoolean();
+    private volatile long latestDeadline;
+    private final Runnable frame = this::runFrame;
+    private long lastFrameStart = 0; // solo EDT
+
+    private final AtomicLong frames = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final SimulationMetrics metrics = SimulationMetrics.get();
 
     /**
      * @param fps    Cuadros por segundo (ej. 60)
@@ -24,22 +64,92 @@ public final class GameClock {
     }
 
     public GameClock(int fps, Runnable onTick, PauseController pauseController) {
-        this.fps = fps;
+        this(fps, frameNanos -> onTick.run(), pauseController);
+    }
+
+    /**
+     * @param onFrame acción de cada cuadro con su plazo, para interpolar
+     */
+    public GameClock(int fps, FrameTask onFrame, PauseController pauseController) {
+        this.periodNanos = periodOf(fps);
+        this.onFrame = onFrame;
         this.pauseController = pauseController;
-        // El Timer ejecuta la acción cada (1000/fps) milisegundos
-        this.timer = new Timer(1000 / fps, e -> {
-            if (this.pauseController == null || !this.pauseController.isPaused()) {
-                onTick.run();
+    }
+
+    private static long periodOf(int fps) {
+        if (fps <= 0)
+            throw new IllegalArgumentException("fps must be positive");
+        return 1_000_000_000L / fps;
+    }
+
+    private void pace() {
+        long next = System.nanoTime();
+        while (true) {
+            if (!running) {
+                LockSupport.park(this);
+                next = System.nanoTime();
+                continue;
+            }
+            long period = periodNanos;
+            long wait = next - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(this, wait);
+                continue;
+            }
+            // Despertó tarde: saltar los plazos perdidos sin salir de la grilla
+            long behind = -wait / period;
+            if (behind > 0) {
+                skipped.addAndGet(behind);
+                metrics.recordFramesSkipped(behind);
+                next += behind * period;
+            }
+            long deadline = next;
+            next += period;
+            if (pauseController != null && pauseController.isPaused())
+                continue;
+            latestDeadline = deadline;
+            if (pending.compareAndSet(false, true))
+                SwingUtilities.invokeLater(frame);
+            else {
+                coalesced.incrementAndGet();
+                metrics.recordFrameCoalesced();
             }
-        });
+        }
+    }
+
+    // En el EDT: dibuja el cuadro más reciente pedido por el marcapasos
+    private void runFrame() {
+        long start = System.nanoTime();
+        if (lastFrameStart != 0)
+            metrics.recordFrameInterval(start - lastFrameStart);
+        lastFrameStart = start;
+        var event = new FrameEvent();
+        event.begin();
+        try {
+            if (running)
+                onFrame.onFrame(latestDeadline);
+        } finally {
+            // Liberar al final: mientras corre, los plazos nuevos se fusionan
+            pending.set(false);
+        }
+        frames.incrementAndGet();
+        metrics.recordFrame(System.nanoTime() - start);
+        event.end();
+        if (event.shouldCommit()) {
+            event.phase = "refresh";
+            event.commit();
+        }
     }
 
     /**
      * Inicia el reloj del juego.
      */
-    public void start() {
-        if (!timer.isRunning()) {
-            timer.start();
+    public synchronized void start() {
+        running = true;
+        if (pacer == null) {
+            pacer = Thread.ofPlatform().daemon().name("game-clock").start(this::pace);
+        } else {
+            LockSupport.unpark(pacer);
         }
     }
 
@@ -47,27 +157,49 @@ public final class GameClock {
      * Pausa el refresco de la pantalla.
      */
     public void pause() {
-        timer.stop();
+        running = false;
     }
 
     /**
      * Reanuda el refresco de la pantalla.
      */
     public void resume() {
-        timer.start();
+        start();
     }
 
     /**
      * Verifica si el reloj está activo.
      */
     public boolean isRunning() {
-        return timer.isRunning();
+        return running;
     }
 
     /**
-     * Permite ajustar la velocidad del juego dinámicamente si fuera necesario.
+     * Permite ajustar la velocidad del juego dinámicamente si fuera necesario;
+     * el nuevo período rige desde el siguiente plazo.
      */
     public void setSpeed(int newFps) {
-        timer.setDelay(1000 / newFps);
+        periodNanos = periodOf(newFps);
+    }
+
+    /**
+     * Cuadros dibujados en el EDT.
+     */
+    public long frames() {
+        return frames.get();
+    }
+
+    /**
+     * Plazos perdidos porque el marcapasos despertó tarde.
+     */
+    public long skipped() {
+        return skipped.get();
+    }
+
+    /**
+     * Plazos fusionados con un cuadro que el EDT aún no dibujaba.
+     */
+    public long coalesced() {
+        return coalesced.get();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,334 @@
+package co.eci.snake.core.engine;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+
+import co.eci.snake.core.Board;
+import co.eci.snake.core.Board.MoveResult;
+import co.eci.snake.core.Cell;
+import co.eci.snake.core.Direction;
+import co.eci.snake.core.DistanceField;
+import co.eci.snake.core.Snake;
+import co.eci.snake.metrics.SimulationMetrics;
+import co.eci.snake.replay.ReplayWriter;
+
+/**
+ * Motor por ticks sincronizados: en cada tick todas las serpientes vivas avanzan
+ * exactamente una vez, en dos fases.
+ * <ol>
+ * <li>Planificación: cada serpiente calcula su siguiente cabeza en paralelo sobre
+ * un ForkJoinPool. La fase solo lee el tablero.</li>
+ * <li>Resolución: en un único hilo y en el orden de la lista se detectan los
+ * conflictos y se aplican los movimientos. Si dos o más serpientes reclaman la
+ * misma celda mueren todas, de modo que el resultado no depende del orden ni del
+ * planificador. Los choques de frente quedan cubiertos porque cada cabeza ocupa su
+ * celda durante la planificación.</li>
+ * </ol>
+ * No es thread-safe: tick() debe llamarse siempre desde el mismo hilo.
+ */
+public final class LockstepEngine {
+
+    // Tamaño de bloque por debajo del cual la planificación no se subdivide
+    private static final int PLAN_THRESHOLD = 256;
+    // Marca de serpiente ya muerta en plans (ningún Move válido es negativo)
+    private static final long DEAD = -1L;
+
+    private final Board board;
+    // Las serpientes y sus arreglos por serpiente solo cambian en reset()
+    private Snake[] snakes;
+    private List<Snake> snakeList;
+    private final ForkJoinPool pool;
+    private long[] plans;
+    private MoveResult[] results;
+    // Reclamos del tick actual en una tabla hash abierta con el doble de ranuras
+    // que serpientes (no una grilla del tamaño del tablero); el sello evita
+    // limpiarla en cada tick
+    private int[] claimStamp;
+    private int[] claimCell;
+    private int[] claimOwner;
+    private int claimShift;
+    private int tick = 0;
+    // Destino opcional de un cuadro completo al final de cada tick
+    private FrameExchange frames;
+    private long framePeriodNanos;
+    private long lastFrameAt;
+    // Grabación opcional: direcciones efectivas al inicio de cada tick y resultados
+    private ReplayWriter recorder;
+    private Direction[] recordedDirections;
+    // Piloto automático opcional: el campo se recalcula una vez por tick
+    private DistanceField autopilot;
+    // Reportar cada tick a SimulationMetrics (compartido por todos los motores)
+    private boolean recordMetrics = true;
+    // Contadores de pasos por serpiente en SimulationMetrics (null hasta el primer tick medido)
+    private LongAdder[] stepCounters;
+
+    public LockstepEngine(Board board, List<Snake> snakes) {
+        this(board, snakes, ForkJoinPool.commonPool());
+    }
+
+    public LockstepEngine(Board board, List<Snake> snakes, ForkJoinPool pool) {
+        this.board = Objects.requireNonNull(board, "board");
+        this.pool = Objects.requireNonNull(pool, "pool");
+        bind(snakes);
+    }
+
+    /**
+     * Prepara el motor para una carrera nueva con otras serpientes sobre el mismo
+     * tablero, ya reiniciado con Board.reset(), reutilizando la tabla de reclamos.
+     * Olvida la grabación de la carrera anterior; el resto de la configuración se
+     * conserva.
+     */
+    public void reset(List<Snake> snakes) {
+        Arrays.fill(claimStamp, 0);
+        tick = 0;
+        recorder = null;
+        recordedDirections = null;
+        bind(snakes);
+    }
+
+    private void bind(List<Snake> snakes) {
+        this.snakes = snakes.toArray(new Snake[0]);
+        this.snakeList = Arrays.asList(this.snakes);
+        this.stepCounters = null;
+        if (plans == null || plans.length != this.snakes.length) {
+            this.plans = new long[this.snakes.length];
+            this.results = new MoveResult[this.snakes.length];
+        }
+        int slots = Math.max(16, Integer.highestOneBit(Math.max(1, this.snakes.length) * 2 - 1) << 1);
+        if (claimStamp == null || claimStamp.length != slots) {
+            claimStamp = new int[slots];
+            claimCell = new int[slots];
+            claimOwner = new int[slots];
+            claimShift = Integer.numberOfLeadingZeros(slots) + 1;
+        }
+        for (Snake s : this.snakes) {
+            board.register(s);
+        }
+    }
+
+    /**
+     * Desactiva el reporte de cada tick a SimulationMetrics, para motores que corren
+     * en paralelo sin compartir nada (ver Tournament).
+     */
+    public void recordMetrics(boolean enabled) {
+        this.recordMetrics = enabled;
+    }
+
+    /**
+     * Avanza todas las serpientes vivas un paso.
+     *
+     * @return resultado por serpiente, en el orden de la lista (null si ya estaba
+     *         muerta). El arreglo se reutiliza en el siguiente tick.
+     */
+    public MoveResult[] tick() {
+        long start = System.nanoTime();
+        tick++;
+        if (autopilot != null) {
+            steer();
+        }
+        if (recorder != null) {
+            recordTurns();
+        }
+        if (snakes.length <= PLAN_THRESHOLD) {
+            plan(0, snakes.length);
+        } else {
+            pool.invoke(new PlanTask(0, snakes.length));
+        }
+        int steps = resolve();
+        if (recordMetrics) {
+            countSteps();
+            SimulationMetrics.get().recordTick(steps, System.nanoTime() - start);
+        }
+        if (recorder != null) {
+            for (int i = 0; i < results.length; i++) {
+                if (results[i] != null) {
+                    recorder.outcome(tick, i, results[i]);
+                }
+            }
+        }
+        if (frames != null && (framePeriodNanos == 0 || System.nanoTime() - lastFrameAt >= framePeriodNanos)) {
+            frames.back().capture(board, snakeList);
+            frames.publish();
+            lastFrameAt = System.nanoTime();
+        }
+        return results;
+    }
+
+    // Pasos por serpiente, como los cuenta SnakeRunner: así las tasas por serpiente
+    // del MXBean también funcionan con el motor
+    private void countSteps() {
+        if (stepCounters == null) {
+            var metrics = SimulationMetrics.get();
+            stepCounters = new LongAdder[snakes.length];
+            for (int i = 0; i < snakes.length; i++) {
+                stepCounters[i] = metrics.snakeCounter(snakes[i].id());
+            }
+        }
+        for (int i = 0; i < results.length; i++) {
+            var result = results[i];
+            if (result != null && result != MoveResult.HIT_OBSTACLE && result != MoveResult.SNAKE_DIED) {
+                stepCounters[i].increment();
+            }
+        }
+    }
+
+    /**
+     * Publica un cuadro del mundo en el intercambio al final de cada tick. Entre
+     * ticks ninguna serpiente se mueve, así el cuadro es globalmente consistente.
+     */
+    public void publishFrames(FrameExchange frames) {
+        publishFrames(frames, 0);
+    }
+
+    /**
+     * Igual que {@link #publishFrames(FrameExchange)} pero capturando como mucho
+     * un cuadro cada minIntervalNanos, para que un consumidor lento (p. ej. la red)
+     * no cueste una captura completa en cada tick.
+     */
+    public void publishFrames(FrameExchange frames, long minIntervalNanos) {
+        this.frames = frames;
+        this.framePeriodNanos = minIntervalNanos;
+        this.lastFrameAt = System.nanoTime() - minIntervalNanos;
+    }
+
+    /**
+     * Graba en cada tick los cambios de dirección (vengan de donde vengan) y los
+     * resultados. Debe llamarse antes del primer tick, con el grabador recién
+     * creado sobre este tablero y estas serpientes.
+     */
+    public void record(ReplayWriter recorder) {
+        this.recorder = recorder;
+        this.recordedDirections = new Direction[snakes.length];
+        for (int i = 0; i < snakes.length; i++) {
+            recordedDirections[i] = snakes[i].direction();
+        }
+    }
+
+    /**
+     * Dirige todas las serpientes hacia el ratón más cercano. Al inicio de cada
+     * tick se recalcula el campo una vez y cada serpiente decide en O(1); las que no
+     * tienen un camino hacia comida conservan su dirección. Los giros ocurren
+     * antes de grabar, así una grabación los reproduce sin el piloto.
+     */
+    public void autopilot(DistanceField field) {
+        this.autopilot = field;
+    }
+
+    private void steer() {
+        autopilot.compute();
+        for (Snake s : snakes) {
+            if (!s.isDead()) {
+                autopilot.steerTowardsFood(s);
+            }
+        }
+    }
+
+    private void recordTurns() {
+        for (int i = 0; i < snakes.length; i++) {
+            Direction d = snakes[i].direction();
+            if (d != recordedDirections[i] && !snakes[i].isDead()) {
+                recorder.turn(tick, i, d);
+                recordedDirections[i] = d;
+            }
+        }
+    }
+
+    /**
+     * Número de ticks ejecutados.
+     */
+    public int ticks() {
+        return tick;
+    }
+
+    private void plan(int from, int to) {
+        for (int i = from; i < to; i++) {
+            Snake s = snakes[i];
+            plans[i] = s.isDead() ? DEAD : board.plan(s);
+        }
+    }
+
+    // Ranura de la celda en la tabla de reclamos: la que ya la reclamó en este tick
+    // o la primera libre (hash de Fibonacci y sondeo lineal)
+    private int claimSlot(int cell) {
+        int mask = claimStamp.length - 1;
+        int slot = (cell * 0x9E3779B9) >>> claimShift;
+        while (claimStamp[slot] == tick && claimCell[slot] != cell) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * @return número de serpientes que avanzaron
+     */
+    private int resolve() {
+        int width = board.width();
+        int moved = 0;
+        // 1. Registrar reclamos; un segundo reclamo sobre la misma celda mata a ambos
+        for (int i = 0; i < snakes.length; i++) {
+            long move = plans[i];
+            if (move == DEAD) {
+                results[i] = null;
+                continue;
+            }
+            results[i] = Board.Move.result(move);
+            if (Board.Move.isFinal(move)) {
+                continue;
+            }
+            int target = Board.Move.target(move);
+            int cell = Cell.y(target) * width + Cell.x(target);
+            int slot = claimSlot(cell);
+            if (claimStamp[slot] == tick) {
+                results[i] = MoveResult.SNAKE_DIED;
+                results[claimOwner[slot]] = MoveResult.SNAKE_DIED;
+            } else {
+                claimStamp[slot] = tick;
+                claimCell[slot] = cell;
+                claimOwner[slot] = i;
+            }
+        }
+        // 2. Aplicar en orden de lista para que los reabastecimientos sean deterministas
+        for (int i = 0; i < snakes.length; i++) {
+            var result = results[i];
+            if (result == null || result == MoveResult.HIT_OBSTACLE) {
+                continue;
+            }
+            if (result == MoveResult.SNAKE_DIED) {
+                snakes[i].die();
+                continue;
+            }
+            results[i] = board.commit(snakes[i], plans[i]);
+            // El destino de un teleport puede estar ocupado: el reclamo falla
+            if (results[i] == MoveResult.SNAKE_DIED) {
+                snakes[i].die();
+            } else {
+                moved++;
+            }
+        }
+        return moved;
+    }
+
+    private final class PlanTask extends RecursiveAction {
+        private final int from;
+        private final int to;
+
+        PlanTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= PLAN_THRESHOLD) {
+                plan(from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new PlanTask(from, mid), new PlanTask(mid, to));
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package co.eci.snake.core.engine;
+
+import java.util.Arrays;
+
+import co.eci.snake.core.Board.Item;
+import co.eci.snake.core.Cell;
+
+/**
+ * Índice espacial de un WorldFrame por baldosas de 16x16 celdas: para cada
+ * baldosa, los ítems y segmentos que caen en ella, en el orden de pintado del
+ * cuadro (los ítems capa por capa y luego los cuerpos de cada serpiente de la
+ * cabeza a la cola), así la última entrada de una celda es la que queda encima.
+ * Quien pinta una ventana del mundo solo recorre las baldosas visibles, sin
+ * mirar el resto del tablero.
+ *
+ * build() es O(entradas + baldosas) con dos pasadas (conteo y llenado, como un
+ * counting sort) y reutiliza sus arreglos entre cuadros. Cada entrada guarda la
+ * celda empaquetada (ver Cell) y una etiqueta: negativa para un ítem, o la
+ * serpiente y la posición del segmento en el cuerpo (ver snake y rank).
+ */
+public final class TileIndex {
+
+    /**
+     * Lado de la baldosa en celdas, como potencia de dos.
+     */
+    public static final int TILE_SHIFT = 4;
+    // Posición en el cuerpo a partir de la cual los segmentos se etiquetan igual
+    private static final int MAX_RANK = 0xFF;
+    private static final Item[] ITEMS = Item.values();
+
+    private int tilesX;
+    private int tilesY;
+    // Entradas de la baldosa t: [starts[t], starts[t + 1])
+    private int[] starts = new int[2];
+    private int[] fill = new int[1];
+    private int[] cells = new int[256];
+    private int[] tags = new int[256];
+
+    /**
+     * Reindexa el cuadro completo. Lo llama WorldFrame.indexTiles() en el hilo
+     * que llenó el cuadro; después solo se lee.
+     */
+    public void build(WorldFrame frame) {
+        tilesX = (frame.width() + (1 << TILE_SHIFT) - 1) >> TILE_SHIFT;
+        tilesY = (frame.height() + (1 << TILE_SHIFT) - 1) >> TILE_SHIFT;
+        int tiles = tilesX * tilesY;
+        if (starts.length < tiles + 1) {
+            starts = new int[tiles + 1];
+            fill = new int[tiles];
+        } else {
+            Arrays.fill(starts, 0, tiles + 1, 0);
+        }
+
+        // Conteo por baldosa
+        for (Item item : ITEMS) {
+            int[] items = frame.items(item);
+            for (int k = 0; k < frame.itemCount(item); k++)
+                starts[tile(items[k]) + 1]++;
+        }
+        int[] bodies = frame.bodies();
+        int segments = frame.snakeCount() == 0 ? 0 : frame.bodyEnd(frame.snakeCount() - 1);
+        for (int k = 0; k < segments; k++)
+            starts[tile(bodies[k]) + 1]++;
+        for (int t = 0; t < tiles; t++)
+            starts[t + 1] += starts[t];
+        int total = starts[tiles];
+        if (cells.length < total) {
+            int size = Integer.highestOneBit(total) << 1;
+            cells = new int[size];
+            tags = new int[size];
+        }
+
+        // Llenado estable: dentro de cada baldosa se conserva el orden de pintado
+        System.arraycopy(starts, 0, fill, 0, tiles);
+        for (Item item : ITEMS) {
+            int[] items = frame.items(item);
+            int tag = -item.ordinal() - 1;
+            for (int k = 0; k < frame.itemCount(item); k++)
+                put(items[k], tag);
+        }
+        for (int s = 0; s < frame.snakeCount(); s++) {
+            int start = frame.bodyStart(s);
+            for (int k = start; k < frame.bodyEnd(s); k++)
+                put(bodies[k], s << 8 | Math.min(k - start, MAX_RANK));
+        }
+    }
+
+    private void put(int cell, int tag) {
+        int at = fill[tile(cell)]++;
+        cells[at] = cell;
+        tags[at] = tag;
+    }
+
+    private int tile(int cell) {
+        return (Cell.y(cell) >> TILE_SHIFT) * tilesX + (Cell.x(cell) >> TILE_SHIFT);
+    }
+
+    public int tilesX() {
+        return tilesX;
+    }
+
+    public int tilesY() {
+        return tilesY;
+    }
+
+    /**
+     * Índice en cells()/tags() de la primera entrada de la baldosa (tx, ty).
+     */
+    public int tileStart(int tx, int ty) {
+        return starts[ty * tilesX + tx];
+    }
+
+    /**
+     * Índice siguiente a la última entrada de la baldosa (tx, ty).
+     */
+    public int tileEnd(int tx, int ty) {
+        return starts[ty * tilesX + tx + 1];
+    }
+
+    /**
+     * Celdas empaquetadas de las entradas, agrupadas por baldosa.
+     */
+    public int[] cells() {
+        return cells;
+    }
+
+    public int[] tags() {
+        return tags;
+    }
+
+    public static boolean isItem(int tag) {
+        return tag < 0;
+    }
+
+    public static Item item(int tag) {
+        return ITEMS[-tag - 1];
+    }
+
+    /**
+     * Índice en el cuadro de la serpiente dueña del segmento.
+     */
+    public static int snake(int tag) {
+        return tag >>> 8;
+    }
+
+    /**
+     * Posición del segmento en el cuerpo (0 = cabeza), saturada en 255.
+     */
+    public static int rank(int tag) {
+        return tag & MAX_RANK;
+    }
+}
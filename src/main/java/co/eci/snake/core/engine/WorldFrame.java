@@ -0,0 +1,175 @@
+package co.eci.snake.core.engine;
+
+import java.util.Arrays;
+import java.util.List;
+
+import co.eci.snake.core.Board;
+import co.eci.snake.core.Board.Item;
+import co.eci.snake.core.Snake;
+
+/**
+ * Foto completa del mundo en arreglos primitivos planos: ítems por capa y los
+ * cuerpos de todas las serpientes concatenados (celdas empaquetadas, ver Cell).
+ * Los arreglos se reutilizan entre capturas y solo crecen, de modo que capturar
+ * no asigna memoria en régimen estable.
+ *
+ * Un cuadro pertenece a un solo hilo a la vez (ver FrameExchange); los arreglos
+ * que exponen los accesores no deben modificarse. indexTiles() agrega al cuadro
+ * su TileIndex, así quien lo pinta (el EDT) no recorre el mundo entero.
+ */
+public final class WorldFrame {
+
+    private static final Item[] ITEMS = Item.values();
+
+    private int width;
+    private int height;
+    private long sequence;
+    private long captureNanos;
+    private final int[][] items = new int[ITEMS.length][16];
+    private final int[] itemCounts = new int[ITEMS.length];
+    private int snakeCount;
+    private int[] bodies = new int[256];
+    // Cuerpo de la serpiente i: bodies[offsets[i] .. offsets[i + 1])
+    private int[] offsets = new int[9];
+    private int[] ids = new int[8];
+    private boolean[] dead = new boolean[8];
+    private final TileIndex tiles = new TileIndex();
+    private boolean indexed;
+
+    /**
+     * Copia el estado actual del tablero y las serpientes en este cuadro.
+     * Cada cuerpo se copia de forma consistente (seqlock de Snake); para un mundo
+     * globalmente consistente debe capturarse entre ticks del LockstepEngine o con
+     * los hilos en pausa.
+     */
+    public void capture(Board board, List<Snake> snakes) {
+        indexed = false;
+        captureNanos = System.nanoTime();
+        width = board.width();
+        height = board.height();
+        for (Item item : ITEMS) {
+            int k = item.ordinal();
+            int n;
+            while ((n = board.copyItems(item, items[k])) > items[k].length) {
+                items[k] = new int[grow(n)];
+            }
+            itemCounts[k] = n;
+        }
+
+        int count = snakes.size();
+        if (ids.length < count) {
+            ids = new int[grow(count)];
+            dead = new boolean[ids.length];
+            offsets = new int[ids.length + 1];
+        }
+        int used = 0;
+        for (int i = 0; i < count; i++) {
+            Snake s = snakes.get(i);
+            ids[i] = s.id();
+            dead[i] = s.isDead();
+            offsets[i] = used;
+            int n;
+            while ((n = s.copyBody(bodies, used)) > bodies.length - used) {
+                bodies = Arrays.copyOf(bodies, grow(used + n));
+            }
+            used += n;
+        }
+        offsets[count] = used;
+        snakeCount = count;
+    }
+
+    /**
+     * Construye el índice por baldosas del contenido capturado. O(entradas): debe
+     * llamarse en el hilo que llenó el cuadro, antes de publicarlo.
+     */
+    public void indexTiles() {
+        tiles.build(this);
+        indexed = true;
+    }
+
+    /**
+     * Índice por baldosas de la última captura.
+     *
+     * @throws IllegalStateException si no se llamó a indexTiles() tras capturar
+     */
+    public TileIndex tiles() {
+        if (!indexed) {
+            throw new IllegalStateException("Frame was published without a tile index");
+        }
+        return tiles;
+    }
+
+    private static int grow(int needed) {
+        return Integer.highestOneBit(needed) << 1;
+    }
+
+    void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+
+    /**
+     * Número de publicación del cuadro (crece con cada publicación).
+     */
+    public long sequence() {
+        return sequence;
+    }
+
+    /**
+     * Instante de la captura en la escala de System.nanoTime().
+     */
+    public long captureNanos() {
+        return captureNanos;
+    }
+
+    public int width() {
+        return width;
+    }
+
+    public int height() {
+        return height;
+    }
+
+    public int itemCount(Item item) {
+        return itemCounts[item.ordinal()];
+    }
+
+    /**
+     * Celdas de la capa; solo son válidas las primeras itemCount(item).
+     */
+    public int[] items(Item item) {
+        return items[item.ordinal()];
+    }
+
+    public int snakeCount() {
+        return snakeCount;
+    }
+
+    public int snakeId(int i) {
+        return ids[i];
+    }
+
+    public boolean isDead(int i) {
+        return dead[i];
+    }
+
+    /**
+     * Índice en bodies() de la cabeza de la serpiente i.
+     */
+    public int bodyStart(int i) {
+        return offsets[i];
+    }
+
+    /**
+     * Índice en bodies() siguiente a la cola de la serpiente i.
+     */
+    public int bodyEnd(int i) {
+        return offsets[i + 1];
+    }
+
+    /**
+     * Cuerpos concatenados, de la cabeza a la cola de cada serpiente.
+     */
+    public int[] bodies() {
+        return bodies;
+    }
+}
@@ -1,22 +1,79 @@
 package co.eci.snake.core.sync;
 
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
 import co.eci.snake.core.GameState;
+import co.eci.snake.metrics.PauseEvent;
+import co.eci.snake.metrics.SimulationMetrics;
 
 /**
- * Controlador centralizado para pausar y reanudar el juego.
- * Usa wait/notify para evitar busy-waiting.
+ * Controlador centralizado para pausar y reanudar el juego, con barrera de
+ * quietud: pause() no retorna hasta que ningún hilo está a mitad de un paso, así
+ * quien pausa puede leer el mundo congelado sin tomar los candados de cada
+ * serpiente.
+ *
+ * Los hilos de serpiente encierran cada paso entre beginStep() y endStep(). El
+ * camino rápido solo toca un contador atómico de pasos en curso; el candado se
+ * usa únicamente para estacionarse durante la pausa y para avisar a pause() de
+ * que el último paso terminó. Se usa ReentrantLock en lugar de wait/notify para
+ * que los hilos virtuales estacionados no fijen su hilo portador.
  * Thread-safe.
  */
 public final class PauseController {
-    private final Object monitor = new Object();
+    private final ReentrantLock lock = new ReentrantLock();
+    // Señal de reanudación: despierta a todos los hilos estacionados a la vez
+    private final Condition resumed = lock.newCondition();
+    // Señal de quietud: el último paso en curso terminó durante una pausa
+    private final Condition quiescent = lock.newCondition();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger runners = new AtomicInteger();
     private volatile GameState state = GameState.STOPPED;
+    // true tras stop(): los hilos dejan de esperar y terminan
+    private volatile boolean terminated = false;
+    // Número de reanudaciones; cada pausa pertenece a una época
+    private long epoch = 0;
+
+    /**
+     * Registra un hilo de serpiente (solo se usa para las métricas de pausa).
+     */
+    public void register() {
+        runners.incrementAndGet();
+    }
+
+    /**
+     * Da de baja un hilo de serpiente que terminó.
+     */
+    public void deregister() {
+        runners.decrementAndGet();
+    }
 
     /**
-     * Pausa el juego. Todos los hilos bloqueados en waitIfPaused() esperarán.
+     * Pausa el juego y espera a que terminen los pasos en curso. Al retornar
+     * ningún hilo está dentro de beginStep()/endStep() hasta el próximo resume().
      */
     public void pause() {
-        synchronized (monitor) {
+        var event = new PauseEvent();
+        event.begin();
+        long start = System.nanoTime();
+        lock.lock();
+        try {
+            if (state != GameState.RUNNING) {
+                return;
+            }
             state = GameState.PAUSED;
+            while (inFlight.get() != 0) {
+                quiescent.awaitUninterruptibly();
+            }
+        } finally {
+            lock.unlock();
+        }
+        SimulationMetrics.get().recordPauseQuiescence(System.nanoTime() - start);
+        event.end();
+        if (event.shouldCommit()) {
+            event.runners = runners.get();
+            event.commit();
         }
     }
 
@@ -24,44 +81,100 @@ public final class PauseController {
      * Reanuda el juego. Despierta todos los hilos en espera.
      */
     public void resume() {
-        synchronized (monitor) {
-            state = GameState.RUNNING;
-            monitor.notifyAll(); // Despertar todos los hilos pausados
-        }
+        start();
     }
 
     /**
-     * Inicia el juego desde estado STOPPED.
+     * Inicia el juego desde estado STOPPED (o PAUSED).
      */
     public void start() {
-        synchronized (monitor) {
+        lock.lock();
+        try {
+            if (terminated) {
+                return;
+            }
             state = GameState.RUNNING;
-            monitor.notifyAll();
+            epoch++;
+            resumed.signalAll();
+        } finally {
+            lock.unlock();
         }
     }
 
     /**
-     * Detiene el juego completamente.
+     * Detiene el juego completamente: los hilos en espera despiertan y
+     * beginStep() retorna false desde ese momento.
      */
     public void stop() {
-        synchronized (monitor) {
+        lock.lock();
+        try {
+            terminated = true;
             state = GameState.STOPPED;
-            monitor.notifyAll();
+            resumed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Entrada a un paso: bloquea mientras el juego no está corriendo.
+     *
+     * @return false si el juego se detuvo y el hilo debe terminar
+     * @throws InterruptedException si el hilo es interrumpido mientras espera
+     */
+    public boolean beginStep() throws InterruptedException {
+        while (true) {
+            // Incrementar antes de leer el estado: pause() escribe el estado antes de
+            // leer el contador, así alguno de los dos ve al otro
+            inFlight.incrementAndGet();
+            if (state == GameState.RUNNING) {
+                return true;
+            }
+            endStep();
+            if (!awaitRunning()) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Salida de un paso iniciado con beginStep(). Si hay una pausa esperando y
+     * este era el último paso en curso, la despierta.
+     */
+    public void endStep() {
+        if (inFlight.decrementAndGet() == 0 && state != GameState.RUNNING) {
+            lock.lock();
+            try {
+                quiescent.signalAll();
+            } finally {
+                lock.unlock();
+            }
         }
     }
 
     /**
      * Bloquea el hilo actual si el juego está pausado.
-     * Los hilos deben llamar esto en cada iteración de su loop.
      *
      * @throws InterruptedException si el hilo es interrumpido mientras espera
      */
     public void waitIfPaused() throws InterruptedException {
-        synchronized (monitor) {
+        awaitRunning();
+    }
+
+    /**
+     * @return false si el juego se detuvo definitivamente
+     */
+    private boolean awaitRunning() throws InterruptedException {
+        lock.lock();
+        try {
+            long seen = epoch;
             // Loop while para evitar lost wakeups
-            while (state == GameState.PAUSED) {
-                monitor.wait();
+            while (state != GameState.RUNNING && !terminated && epoch == seen) {
+                resumed.await();
             }
+            return !terminated;
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -0,0 +1,23 @@
+package co.eci.snake.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Trabajo del EDT por cuadro: actualización del lienzo o pintado del panel.
+ */
+@Name("co.eci.snake.Frame")
+@Label("Frame Paint")
+@Category("Snake Race")
+@Description("Tiempo de actualización o pintado de un cuadro en el EDT")
+@Threshold("4 ms")
+@StackTrace(false)
+public class FrameEvent extends Event {
+  @Label("Phase")
+  public String phase;
+}
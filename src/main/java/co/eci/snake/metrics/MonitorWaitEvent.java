@@ -0,0 +1,23 @@
+package co.eci.snake.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Espera para entrar al monitor de una serpiente en Snake.advance.
+ */
+@Name("co.eci.snake.MonitorWait")
+@Label("Snake Monitor Wait")
+@Category("Snake Race")
+@Description("Tiempo bloqueado esperando el monitor de una serpiente")
+@Threshold("1 ms")
+@StackTrace(false)
+public class MonitorWaitEvent extends Event {
+  @Label("Snake Id")
+  public int snakeId;
+}
@@ -0,0 +1,21 @@
+package co.eci.snake.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Desde que se solicita la pausa hasta que el último hilo de serpiente se detiene.
+ */
+@Name("co.eci.snake.Pause")
+@Label("Pause To Quiescence")
+@Category("Snake Race")
+@Description("Latencia entre la solicitud de pausa y la quietud de todos los hilos")
+@StackTrace(false)
+public class PauseEvent extends Event {
+  @Label("Runners")
+  public int runners;
+}
@@ -0,0 +1,290 @@
+package co.eci.snake.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Métricas de la simulación compartidas por SnakeRunner, Board, Snake, GameClock y
+ * la UI: pasos por serpiente y totales, histogramas de latencia de paso, espera en
+ * monitores de Snake, latencia de pausa hasta quietud y tiempo por cuadro. Registrar
+ * una muestra es un par de incrementos atómicos y no asigna memoria.
+ *
+ * Se expone por JMX (ver SimulationMetricsMXBean) y los mismos puntos de medición
+ * emiten eventos JFR en la categoría "Snake Race".
+ */
+public final class SimulationMetrics implements SimulationMetricsMXBean {
+
+  private static final SimulationMetrics INSTANCE = new SimulationMetrics();
+  private static final String OBJECT_NAME = "co.eci.snake:type=SimulationMetrics";
+  // Esperas de monitor más cortas se consideran adquisición sin contención
+  private static final long MONITOR_WAIT_FLOOR_NANOS = 1_000;
+
+  private final LongAdder totalSteps = new LongAdder();
+  private final ConcurrentHashMap<Integer, LongAdder> stepsBySnake = new ConcurrentHashMap<>();
+  private final LatencyHistogram stepLatency = new LatencyHistogram();
+  private final LatencyHistogram monitorWait = new LatencyHistogram();
+  private final LatencyHistogram pauseQuiescence = new LatencyHistogram();
+  private final LatencyHistogram frameTime = new LatencyHistogram();
+  private final LatencyHistogram paintTime = new LatencyHistogram();
+  private final LatencyHistogram frameInterval = new LatencyHistogram();
+  private final LongAdder framesSkipped = new LongAdder();
+  private final LongAdder framesCoalesced = new LongAdder();
+  private final LongAdder claimConflicts = new LongAdder();
+  private volatile long lastPauseQuiescence = 0;
+
+  // Muestra anterior para calcular tasas entre consultas (bajo el monitor de la instancia)
+  private long lastRateTime = System.nanoTime();
+  private long lastRateSteps = 0;
+  private final Map<Integer, Long> lastSnakeSteps = new HashMap<>();
+  private long lastSnakeRateTime = System.nanoTime();
+
+  private SimulationMetrics() {}
+
+  public static SimulationMetrics get() {
+    return INSTANCE;
+  }
+
+  /**
+   * Registra la instancia en el MBeanServer de la plataforma (idempotente).
+   */
+  public static void registerMBean() {
+    try {
+      var server = ManagementFactory.getPlatformMBeanServer();
+      var name = new ObjectName(OBJECT_NAME);
+      if (!server.isRegistered(name))
+        server.registerMBean(INSTANCE, name);
+    } catch (JMException e) {
+      System.err.println("No se pudo registrar " + OBJECT_NAME + ": " + e.getMessage());
+    }
+  }
+
+  /**
+   * Contador de pasos de una serpiente; el llamador lo conserva para no buscarlo
+   * en cada paso.
+   */
+  public LongAdder snakeCounter(int snakeId) {
+    return stepsBySnake.computeIfAbsent(snakeId, id -> new LongAdder());
+  }
+
+  public void recordStep(LongAdder snakeCounter, long nanos) {
+    snakeCounter.increment();
+    totalSteps.increment();
+    stepLatency.record(nanos);
+  }
+
+  /**
+   * Pasos aplicados por el LockstepEngine en un tick de la duración dada; el motor
+   * suma además los pasos de cada serpiente en su snakeCounter.
+   */
+  public void recordTick(int steps, long nanos) {
+    totalSteps.add(steps);
+    stepLatency.record(steps == 0 ? nanos : nanos / steps);
+  }
+
+  /**
+   * @param event evento ya medido con begin() antes de pedir el monitor y end()
+   *              al obtenerlo; se emite si supera el umbral de JFR
+   */
+  public void recordMonitorWait(MonitorWaitEvent event, int snakeId, long nanos) {
+    if (nanos < MONITOR_WAIT_FLOOR_NANOS)
+      return;
+    monitorWait.record(nanos);
+    if (event.shouldCommit()) {
+      event.snakeId = snakeId;
+      event.commit();
+    }
+  }
+
+  public void recordPauseQuiescence(long nanos) {
+    lastPauseQuiescence = nanos;
+    pauseQuiescence.record(nanos);
+  }
+
+  public void recordFrame(long nanos) {
+    frameTime.record(nanos);
+  }
+
+  /**
+   * Tiempo entre el inicio de dos cuadros consecutivos en el EDT (ritmo real).
+   */
+  public void recordFrameInterval(long nanos) {
+    frameInterval.record(nanos);
+  }
+
+  public void recordFramesSkipped(long frames) {
+    framesSkipped.add(frames);
+  }
+
+  public void recordFrameCoalesced() {
+    framesCoalesced.increment();
+  }
+
+  public void recordPaint(long nanos) {
+    paintTime.record(nanos);
+  }
+
+  public void recordClaimConflict() {
+    claimConflicts.increment();
+  }
+
+  public LatencyHistogram stepLatency() {
+    return stepLatency;
+  }
+
+  @Override
+  public long getTotalSteps() {
+    return totalSteps.sum();
+  }
+
+  @Override
+  public synchronized double getStepsPerSecond() {
+    long now = System.nanoTime();
+    long steps = totalSteps.sum();
+    double rate = (steps - lastRateSteps) * 1e9 / Math.max(1, now - lastRateTime);
+    lastRateTime = now;
+    lastRateSteps = steps;
+    return rate;
+  }
+
+  @Override
+  public Map<Integer, Long> getStepsBySnake() {
+    var result = new TreeMap<Integer, Long>();
+    stepsBySnake.forEach((id, adder) -> result.put(id, adder.sum()));
+    return result;
+  }
+
+  @Override
+  public synchronized Map<Integer, Double> getStepsPerSecondBySnake() {
+    long now = System.nanoTime();
+    double seconds = Math.max(1, now - lastSnakeRateTime) / 1e9;
+    var result = new TreeMap<Integer, Double>();
+    stepsBySnake.forEach((id, adder) -> {
+      long steps = adder.sum();
+      long previous = lastSnakeSteps.getOrDefault(id, 0L);
+      result.put(id, (steps - previous) / seconds);
+      lastSnakeSteps.put(id, steps);
+    });
+    lastSnakeRateTime = now;
+    return result;
+  }
+
+  @Override
+  public double getStepLatencyP50Micros() {
+    return micros(stepLatency.percentile(0.50));
+  }
+
+  @Override
+  public double getStepLatencyP99Micros() {
+    return micros(stepLatency.percentile(0.99));
+  }
+
+  @Override
+  public double getStepLatencyP999Micros() {
+    return micros(stepLatency.percentile(0.999));
+  }
+
+  @Override
+  public double getStepLatencyMaxMicros() {
+    return micros(stepLatency.max());
+  }
+
+  @Override
+  public double getMonitorWaitTotalMillis() {
+    return monitorWait.sum() / 1e6;
+  }
+
+  @Override
+  public double getMonitorWaitP99Micros() {
+    return micros(monitorWait.percentile(0.99));
+  }
+
+  @Override
+  public long getMonitorWaitCount() {
+    return monitorWait.count();
+  }
+
+  @Override
+  public double getLastPauseQuiescenceMillis() {
+    return lastPauseQuiescence / 1e6;
+  }
+
+  @Override
+  public double getPauseQuiescenceMaxMillis() {
+    return pauseQuiescence.max() / 1e6;
+  }
+
+  @Override
+  public double getFrameP50Micros() {
+    return micros(frameTime.percentile(0.50));
+  }
+
+  @Override
+  public double getFrameP99Micros() {
+    return micros(frameTime.percentile(0.99));
+  }
+
+  @Override
+  public double getFrameIntervalP50Micros() {
+    return micros(frameInterval.percentile(0.50));
+  }
+
+  @Override
+  public double getFrameIntervalP99Micros() {
+    return micros(frameInterval.percentile(0.99));
+  }
+
+  @Override
+  public long getFramesSkipped() {
+    return framesSkipped.sum();
+  }
+
+  @Override
+  public long getFramesCoalesced() {
+    return framesCoalesced.sum();
+  }
+
+  @Override
+  public double getPaintP50Micros() {
+    return micros(paintTime.percentile(0.50));
+  }
+
+  @Override
+  public double getPaintP99Micros() {
+    return micros(paintTime.percentile(0.99));
+  }
+
+  @Override
+  public long getClaimConflicts() {
+    return claimConflicts.sum();
+  }
+
+  @Override
+  public void reset() {
+    totalSteps.reset();
+    stepsBySnake.values().forEach(LongAdder::reset);
+    stepLatency.reset();
+    monitorWait.reset();
+    pauseQuiescence.reset();
+    frameTime.reset();
+    paintTime.reset();
+    frameInterval.reset();
+    framesSkipped.reset();
+    framesCoalesced.reset();
+    claimConflicts.reset();
+    synchronized (this) {
+      lastSnakeSteps.clear();
+      lastRateSteps = 0;
+    }
+  }
+
+  private static double micros(long nanos) {
+    return nanos / 1e3;
+  }
+}
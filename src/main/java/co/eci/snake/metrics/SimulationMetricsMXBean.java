@@ -0,0 +1,55 @@
+package co.eci.snake.metrics;
+
+import java.util.Map;
+
+/**
+ * Vista JMX de las métricas de la simulación (co.eci.snake:type=SimulationMetrics).
+ * Latencias en microsegundos salvo que el nombre indique otra unidad.
+ */
+public interface SimulationMetricsMXBean {
+  long getTotalSteps();
+
+  double getStepsPerSecond();
+
+  Map<Integer, Long> getStepsBySnake();
+
+  Map<Integer, Double> getStepsPerSecondBySnake();
+
+  double getStepLatencyP50Micros();
+
+  double getStepLatencyP99Micros();
+
+  double getStepLatencyP999Micros();
+
+  double getStepLatencyMaxMicros();
+
+  double getMonitorWaitTotalMillis();
+
+  double getMonitorWaitP99Micros();
+
+  long getMonitorWaitCount();
+
+  double getLastPauseQuiescenceMillis();
+
+  double getPauseQuiescenceMaxMillis();
+
+  double getFrameP50Micros();
+
+  double getFrameP99Micros();
+
+  double getFrameIntervalP50Micros();
+
+  double getFrameIntervalP99Micros();
+
+  long getFramesSkipped();
+
+  long getFramesCoalesced();
+
+  double getPaintP50Micros();
+
+  double getPaintP99Micros();
+
+  long getClaimConflicts();
+
+  void reset();
+}
@@ -0,0 +1,29 @@
+package co.eci.snake.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Paso de una serpiente (Board.step). Frecuente: deshabilitado por defecto y con
+ * umbral, se activa en la configuración de la grabación JFR.
+ */
+@Name("co.eci.snake.Step")
+@Label("Snake Step")
+@Category("Snake Race")
+@Description("Un paso de movimiento de una serpiente en el tablero")
+@Enabled(false)
+@Threshold("100 us")
+@StackTrace(false)
+public class StepEvent extends Event {
+  @Label("Snake Id")
+  public int snakeId;
+
+  @Label("Result")
+  public String result;
+}
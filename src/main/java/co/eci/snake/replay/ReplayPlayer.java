@@ -0,0 +1,98 @@
+package co.eci.snake.replay;
+
+import co.eci.snake.core.Board;
+import co.eci.snake.core.Board.MoveResult;
+import co.eci.snake.core.Snake;
+import co.eci.snake.core.engine.FrameExchange;
+import co.eci.snake.core.engine.LockstepEngine;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Reproduce una grabación sobre un mundo nuevo: el tablero se recrea con la
+ * semilla grabada, los giros se aplican al inicio de su tick y cada resultado del
+ * LockstepEngine se compara con el grabado, de modo que una divergencia se detecta
+ * en el tick exacto en que ocurre.
+ */
+public final class ReplayPlayer {
+
+  private final Path file;
+  private final ReplayReader reader;
+  private final Board board;
+  private final List<Snake> snakes;
+  private final LockstepEngine engine;
+
+  public ReplayPlayer(Path file) {
+    this.file = file;
+    this.reader = new ReplayReader(file);
+    this.board = new Board(reader.width(), reader.height(), reader.seed());
+    List<Snake> list = new ArrayList<>(reader.snakeCount());
+    for (int i = 0; i < reader.snakeCount(); i++) {
+      var snake = Snake.of(reader.startX(i), reader.startY(i), reader.startDirection(i));
+      board.register(snake);
+      list.add(snake);
+    }
+    this.snakes = Collections.unmodifiableList(list);
+    this.engine = new LockstepEngine(board, snakes);
+  }
+
+  public Board board() {
+    return board;
+  }
+
+  public List<Snake> snakes() {
+    return snakes;
+  }
+
+  public long seed() {
+    return reader.seed();
+  }
+
+  /**
+   * Reproduce la grabación completa.
+   *
+   * @param frames       intercambio donde publicar un cuadro por tick, o null
+   * @param nanosPerTick duración de cada tick; 0 reproduce tan rápido como se pueda
+   * @return número de ticks reproducidos
+   * @throws IllegalStateException si el mundo reproducido diverge de la grabación
+   */
+  public int play(FrameExchange frames, long nanosPerTick) {
+    if (frames != null)
+      engine.publishFrames(frames);
+    boolean more = reader.next();
+    long deadline = System.nanoTime();
+    while (more || engine.ticks() < reader.tick()) {
+      int tick = engine.ticks() + 1;
+      while (more && reader.isTurn() && reader.tick() == tick) {
+        snakes.get(reader.snake()).face(reader.direction());
+        more = reader.next();
+      }
+      MoveResult[] results = engine.tick();
+      for (int i = 0; i < results.length; i++) {
+        MoveResult expected = MoveResult.MOVED;
+        if (more && reader.isOutcome() && reader.tick() == tick && reader.snake() == i) {
+          expected = reader.result();
+          more = reader.next();
+        }
+        MoveResult actual = results[i] == null ? MoveResult.MOVED : results[i];
+        if (actual != expected)
+          throw new IllegalStateException("Replay " + file + " diverged at tick " + tick + ", snake " + i
+              + ": recorded " + expected + ", replayed " + actual);
+      }
+      if (more && reader.tick() <= tick)
+        throw new IllegalStateException("Replay " + file + " diverged at tick " + tick
+            + ": unmatched recorded events");
+      if (nanosPerTick > 0) {
+        deadline += nanosPerTick;
+        long wait;
+        while ((wait = deadline - System.nanoTime()) > 0)
+          LockSupport.parkNanos(wait);
+      }
+    }
+    return engine.ticks();
+  }
+}
@@ -0,0 +1,159 @@
+package co.eci.snake.replay;
+
+import co.eci.snake.core.Board.MoveResult;
+import co.eci.snake.core.Direction;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Lee una grabación de ReplayWriter mapeando el archivo completo en memoria. La
+ * cabecera se decodifica al abrir; los eventos se recorren con next() sin asignar
+ * objetos.
+ */
+public final class ReplayReader {
+  private static final Direction[] DIRECTIONS = Direction.values();
+  private static final MoveResult[] RESULTS = MoveResult.values();
+
+  private final MappedByteBuffer buffer;
+  private final long seed;
+  private final int width;
+  private final int height;
+  private final int[] startX;
+  private final int[] startY;
+  private final Direction[] startDir;
+
+  // Evento actual
+  private int type = -1;
+  private int tick = 0;
+  private int snake = 0;
+  private int value = 0;
+
+  public ReplayReader(Path file) {
+    try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    } catch (IOException e) {
+      throw new UncheckedIOException("Cannot open replay " + file, e);
+    }
+    if (buffer.remaining() < ReplayWriter.HEADER || buffer.getInt() != ReplayWriter.MAGIC)
+      throw new IllegalArgumentException("Not a replay file: " + file);
+    byte version = buffer.get();
+    if (version != ReplayWriter.VERSION)
+      throw new IllegalArgumentException("Unsupported replay version " + version);
+    // Sin tamaño (grabación sin terminar) se lee hasta el fin del archivo
+    long size = buffer.getLong();
+    if (size > 0)
+      buffer.limit((int) Math.min(size, buffer.capacity()));
+    seed = buffer.getLong();
+    width = getVarInt();
+    height = getVarInt();
+    int n = getVarInt();
+    startX = new int[n];
+    startY = new int[n];
+    startDir = new Direction[n];
+    for (int i = 0; i < n; i++) {
+      startX[i] = getVarInt();
+      startY[i] = getVarInt();
+      startDir[i] = DIRECTIONS[buffer.get()];
+    }
+  }
+
+  public long seed() {
+    return seed;
+  }
+
+  public int width() {
+    return width;
+  }
+
+  public int height() {
+    return height;
+  }
+
+  public int snakeCount() {
+    return startX.length;
+  }
+
+  public int startX(int snake) {
+    return startX[snake];
+  }
+
+  public int startY(int snake) {
+    return startY[snake];
+  }
+
+  public Direction startDirection(int snake) {
+    return startDir[snake];
+  }
+
+  /**
+   * Avanza al siguiente evento.
+   *
+   * @return false al llegar al fin del flujo
+   */
+  public boolean next() {
+    if (type == ReplayWriter.END || !buffer.hasRemaining()) {
+      type = ReplayWriter.END;
+      return false;
+    }
+    int key = getVarInt();
+    int delta = key >>> 2;
+    int newType = key & 3;
+    tick += delta;
+    if (newType == ReplayWriter.END) {
+      type = newType;
+      return false;
+    }
+    if (delta != 0 || newType != type)
+      snake = 0;
+    type = newType;
+    int body = getVarInt();
+    snake += body >>> 3;
+    value = body & 7;
+    return true;
+  }
+
+  /**
+   * Tick del evento actual (o el último tick grabado tras el fin del flujo).
+   */
+  public int tick() {
+    return tick;
+  }
+
+  public boolean isTurn() {
+    return type == ReplayWriter.TURN;
+  }
+
+  public boolean isOutcome() {
+    return type == ReplayWriter.OUTCOME;
+  }
+
+  /**
+   * Índice de la serpiente del evento actual, en el orden de la cabecera.
+   */
+  public int snake() {
+    return snake;
+  }
+
+  public Direction direction() {
+    return DIRECTIONS[value];
+  }
+
+  public MoveResult result() {
+    return RESULTS[value];
+  }
+
+  private int getVarInt() {
+    int v = 0;
+    for (int shift = 0;; shift += 7) {
+      byte b = buffer.get();
+      v |= (b & 0x7F) << shift;
+      if (b >= 0)
+        return v;
+    }
+  }
+}
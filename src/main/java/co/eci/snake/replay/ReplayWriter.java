@@ -0,0 +1,205 @@
+package co.eci.snake.replay;
+
+import co.eci.snake.core.Board;
+import co.eci.snake.core.Board.MoveResult;
+import co.eci.snake.core.Cell;
+import co.eci.snake.core.Direction;
+import co.eci.snake.core.Snake;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Graba una carrera por ticks como flujo binario compacto sobre un archivo
+ * mapeado en memoria: escribir un evento es copiar unos pocos bytes en el mapa,
+ * sin llamadas al sistema ni buffers intermedios.
+ *
+ * Formato (enteros como varint sin signo de 7 bits por byte):
+ * <pre>
+ * cabecera: MAGIC (4 bytes) VERSION (1 byte) tamaño (8 bytes) semilla (8 bytes)
+ *           ancho alto serpientes, y por serpiente: x y dirección
+ * evento:   clave = (deltaTick &lt;&lt; 2) | tipo
+ *           TURN/OUTCOME: (deltaSerpiente &lt;&lt; 3) | valor
+ *           END: fin del flujo; su deltaTick lleva al total de ticks
+ * </pre>
+ * El tick se codifica como diferencia con el evento anterior y el índice de
+ * serpiente como diferencia con el anterior del mismo tick y tipo. Solo se graban
+ * los cambios de dirección efectivos y los resultados distintos de MOVED; el resto
+ * se deriva de la semilla al reproducir.
+ *
+ * El tamaño es el de la grabación en bytes, escrito por finish() (0 si no se
+ * terminó). El archivo crece de a regiones mapeadas, así que puede ser más
+ * largo: el recorte al final es solo un intento, porque en algunos sistemas
+ * (Windows) no se puede recortar un archivo mientras haya regiones mapeadas y
+ * Java las libera recién cuando el recolector reclama los buffers.
+ *
+ * No es thread-safe: lo usa el hilo que ejecuta los ticks.
+ */
+public final class ReplayWriter implements AutoCloseable {
+  static final int MAGIC = 0x534E4B52; // "SNKR"
+  static final byte VERSION = 2;
+  // Posición del tamaño en la cabecera
+  static final int SIZE_OFFSET = 5;
+  static final int HEADER = 21;
+  static final int TURN = 0, OUTCOME = 1, END = 2;
+
+  // Tamaño de cada región mapeada; al llenarse se mapea la siguiente
+  private static final int CHUNK = 1 << 20;
+  // Un evento ocupa a lo sumo dos varints de 5 bytes
+  private static final int MAX_EVENT = 10;
+
+  private final Path file;
+  private final FileChannel channel;
+  // Primera región mapeada, donde está la cabecera
+  private MappedByteBuffer first;
+  private MappedByteBuffer buffer;
+  private long base = 0;
+  private int lastTick = 0;
+  private int lastType = -1;
+  private int lastSnake = 0;
+  private boolean closed = false;
+
+  private ReplayWriter(Path file, FileChannel channel) throws IOException {
+    this.file = file;
+    this.channel = channel;
+    this.first = channel.map(FileChannel.MapMode.READ_WRITE, 0, CHUNK);
+    this.buffer = first;
+  }
+
+  /**
+   * Crea (o reemplaza) la grabación y escribe la cabecera con el estado inicial.
+   * Debe llamarse antes del primer tick, con las serpientes aún sin mover.
+   *
+   * @param seed semilla con la que se creó el tablero
+   */
+  public static ReplayWriter create(Path file, Board board, long seed, List<Snake> snakes) {
+    try {
+      var channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+          StandardOpenOption.READ, StandardOpenOption.WRITE);
+      var writer = new ReplayWriter(file, channel);
+      writer.header(board, seed, snakes);
+      return writer;
+    } catch (IOException e) {
+      throw new UncheckedIOException("Cannot create replay " + file, e);
+    }
+  }
+
+  private void header(Board board, long seed, List<Snake> snakes) throws IOException {
+    ensure(HEADER + 15);
+    buffer.putInt(MAGIC);
+    buffer.put(VERSION);
+    buffer.putLong(0L);
+    buffer.putLong(seed);
+    putVarInt(board.width());
+    putVarInt(board.height());
+    putVarInt(snakes.size());
+    for (Snake s : snakes) {
+      int head = s.headCell();
+      ensure(11);
+      putVarInt(Cell.x(head));
+      putVarInt(Cell.y(head));
+      buffer.put((byte) s.direction().ordinal());
+    }
+  }
+
+  /**
+   * Cambio de dirección aplicado antes del tick indicado.
+   */
+  public void turn(int tick, int snake, Direction dir) {
+    event(tick, TURN, snake, dir.ordinal());
+  }
+
+  /**
+   * Resultado del tick para una serpiente (MOVED no se graba).
+   */
+  public void outcome(int tick, int snake, MoveResult result) {
+    if (result != MoveResult.MOVED)
+      event(tick, OUTCOME, snake, result.ordinal());
+  }
+
+  private void event(int tick, int type, int snake, int value) {
+    if (tick < lastTick)
+      throw new IllegalArgumentException("Ticks must not go backwards: " + tick + " < " + lastTick);
+    if (tick != lastTick || type != lastType)
+      lastSnake = 0;
+    if (snake < lastSnake)
+      throw new IllegalArgumentException("Snakes must be recorded in list order within a tick");
+    try {
+      ensure(MAX_EVENT);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    putVarInt(((tick - lastTick) << 2) | type);
+    putVarInt(((snake - lastSnake) << 3) | value);
+    lastTick = tick;
+    lastType = type;
+    lastSnake = snake;
+  }
+
+  /**
+   * Escribe el fin del flujo con el número total de ticks ejecutados y el tamaño
+   * en la cabecera, y si el sistema lo permite recorta el archivo a ese tamaño.
+   */
+  public void finish(int ticks) {
+    if (closed)
+      return;
+    if (ticks < lastTick)
+      throw new IllegalArgumentException("Ticks must not go backwards: " + ticks + " < " + lastTick);
+    closed = true;
+    long size;
+    try {
+      ensure(5);
+      putVarInt(((ticks - lastTick) << 2) | END);
+      size = base + buffer.position();
+      first.putLong(SIZE_OFFSET, size);
+      first.force();
+      buffer.force();
+      first = null;
+      buffer = null;
+      channel.close();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    trim(size);
+  }
+
+  // Con el canal de escritura cerrado; si las regiones siguen mapeadas y el
+  // sistema no deja recortar, el archivo queda con relleno tras el fin del flujo
+  private void trim(long size) {
+    try (var out = FileChannel.open(file, StandardOpenOption.WRITE)) {
+      out.truncate(size);
+    } catch (IOException e) {
+      // El lector usa el tamaño de la cabecera
+    }
+  }
+
+  /**
+   * Cierra la grabación; si no se llamó a finish() el último tick grabado se toma
+   * como el total.
+   */
+  @Override
+  public void close() {
+    finish(lastTick);
+  }
+
+  // Mapea la siguiente región si no caben n bytes en la actual
+  private void ensure(int n) throws IOException {
+    if (buffer.remaining() >= n)
+      return;
+    base += buffer.position();
+    buffer = channel.map(FileChannel.MapMode.READ_WRITE, base, Math.max(CHUNK, n));
+  }
+
+  private void putVarInt(int v) {
+    while ((v & ~0x7F) != 0) {
+      buffer.put((byte) ((v & 0x7F) | 0x80));
+      v >>>= 7;
+    }
+    buffer.put((byte) v);
+  }
+}
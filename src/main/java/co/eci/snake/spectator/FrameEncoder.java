@@ -0,0 +1,229 @@
+package co.eci.snake.spectator;
+
+import co.eci.snake.core.Board.Item;
+import co.eci.snake.core.Cell;
+import co.eci.snake.core.engine.WorldFrame;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Codifica cuadros del mundo para los espectadores: un cuadro completo
+ * (KEYFRAME) o solo los cambios respecto al último cuadro codificado (DELTA).
+ *
+ * Mensaje (big-endian): longitud (int, bytes que siguen), tipo (byte),
+ * secuencia (long) y el cuerpo:
+ * <pre>
+ * KEYFRAME: ancho alto, por capa de ítems: n y n celdas,
+ *           serpientes: n, y por serpiente: id muerta(byte) largo celdas
+ * DELTA:    ítems: n, y por cambio: capa | APARECE(byte) celda
+ *           serpientes: n, y por serpiente que cambió: id flags(byte) y según flags
+ *           BODY: largo celdas (reemplazo completo, p. ej. serpiente nueva); con
+ *           BODY el flag DIED indica el estado y no una muerte nueva
+ *           si no: cabezas nuevas (n celdas, de la más vieja a la más nueva) y
+ *           número de segmentos retirados de la cola
+ * </pre>
+ * Las celdas van empaquetadas con Cell. No es thread-safe: lo usa el hilo del
+ * servidor.
+ */
+final class FrameEncoder {
+  static final byte KEYFRAME = 0, DELTA = 1;
+  static final int HEADER = 4 + 1 + 8;
+  // Flags de serpiente en un DELTA
+  static final int DIED = 1, BODY = 2;
+  // En un cambio de ítem, bit que indica que el ítem aparece (si no, se consumió)
+  static final int SPAWNED = 0x80;
+  // Más movimientos que esto entre dos cuadros se envían como cuerpo completo
+  private static final int MAX_HEADS = 64;
+
+  private static final Item[] ITEMS = Item.values();
+
+  // Último cuadro codificado (copia propia)
+  private int width;
+  private final int[][] items = new int[ITEMS.length][0];
+  private int snakeCount = 0;
+  private int[] ids = new int[0];
+  private boolean[] dead = new boolean[0];
+  private int[] offsets = new int[1];
+  private int[] bodies = new int[0];
+  private boolean hasPrevious = false;
+
+  private ByteBuffer out = ByteBuffer.allocate(1 << 14);
+
+  /**
+   * Cuadro completo; no cambia la referencia de los deltas.
+   */
+  ByteBuffer keyframe(WorldFrame frame) {
+    begin(KEYFRAME, frame.sequence());
+    ensure(8);
+    out.putInt(frame.width()).putInt(frame.height());
+    for (Item item : ITEMS) {
+      int n = frame.itemCount(item);
+      ensure(4 + 4 * n);
+      out.putInt(n);
+      out.asIntBuffer().put(frame.items(item), 0, n);
+      out.position(out.position() + 4 * n);
+    }
+    ensure(4);
+    out.putInt(frame.snakeCount());
+    for (int i = 0; i < frame.snakeCount(); i++) {
+      putSnake(frame.snakeId(i), frame.isDead(i), frame.bodies(), frame.bodyStart(i), frame.bodyEnd(i));
+    }
+    return finish();
+  }
+
+  /**
+   * Cambios respecto al cuadro anterior codificado con delta(); el primero se
+   * calcula contra un mundo vacío. El cuadro pasa a ser la nueva referencia.
+   */
+  ByteBuffer delta(WorldFrame frame) {
+    begin(DELTA, frame.sequence());
+    if (hasPrevious && frame.width() != width)
+      hasPrevious = false;
+    width = frame.width();
+
+    // Ítems: mezcla de dos listas ordenadas por índice de celda
+    int countAt = out.position();
+    ensure(4);
+    out.putInt(0);
+    int changes = 0;
+    for (Item item : ITEMS) {
+      int[] now = frame.items(item);
+      int n = frame.itemCount(item);
+      int[] before = hasPrevious ? items[item.ordinal()] : new int[0];
+      int a = 0, b = 0;
+      while (a < before.length || b < n) {
+        long ia = a < before.length ? index(before[a]) : Long.MAX_VALUE;
+        long ib = b < n ? index(now[b]) : Long.MAX_VALUE;
+        if (ia == ib) {
+          a++;
+          b++;
+          continue;
+        }
+        ensure(5);
+        if (ia < ib) {
+          out.put((byte) item.ordinal()).putInt(before[a++]);
+        } else {
+          out.put((byte) (item.ordinal() | SPAWNED)).putInt(now[b++]);
+        }
+        changes++;
+      }
+      items[item.ordinal()] = Arrays.copyOf(now, n);
+    }
+    out.putInt(countAt, changes);
+
+    // Serpientes
+    countAt = out.position();
+    ensure(4);
+    out.putInt(0);
+    changes = 0;
+    int[] now = frame.bodies();
+    for (int i = 0; i < frame.snakeCount(); i++) {
+      int start = frame.bodyStart(i), end = frame.bodyEnd(i);
+      boolean died = frame.isDead(i);
+      if (!hasPrevious || i >= snakeCount || ids[i] != frame.snakeId(i)) {
+        putSnakeBody(frame.snakeId(i), died, now, start, end);
+        changes++;
+        continue;
+      }
+      int flags = died && !dead[i] ? DIED : 0;
+      int oldStart = offsets[i], oldLength = offsets[i + 1] - oldStart;
+      int newLength = end - start;
+      // Cuántas cabezas nuevas hay antes de la cabeza anterior
+      int heads = -1;
+      for (int j = 0; j < Math.min(newLength, MAX_HEADS + 1); j++) {
+        if (now[start + j] == bodies[oldStart]) {
+          heads = j;
+          break;
+        }
+      }
+      int kept = newLength - heads;
+      int removed = oldLength - kept;
+      if (heads < 0 || removed < 0 || (kept > 0 && now[end - 1] != bodies[oldStart + kept - 1])) {
+        putSnakeBody(frame.snakeId(i), died, now, start, end);
+        changes++;
+        continue;
+      }
+      if (heads == 0 && removed == 0 && flags == 0)
+        continue;
+      ensure(4 + 1 + 4 + 4 * heads + 4);
+      out.putInt(frame.snakeId(i)).put((byte) flags).putInt(heads);
+      // De la más vieja a la más nueva, para aplicarlas empujando al frente
+      for (int j = heads - 1; j >= 0; j--)
+        out.putInt(now[start + j]);
+      out.putInt(removed);
+      changes++;
+    }
+    out.putInt(countAt, changes);
+    remember(frame);
+    return finish();
+  }
+
+  private void remember(WorldFrame frame) {
+    int count = frame.snakeCount();
+    if (ids.length < count) {
+      ids = new int[count];
+      dead = new boolean[count];
+      offsets = new int[count + 1];
+    }
+    for (int i = 0; i < count; i++) {
+      ids[i] = frame.snakeId(i);
+      dead[i] = frame.isDead(i);
+      offsets[i] = frame.bodyStart(i);
+    }
+    offsets[count] = count == 0 ? 0 : frame.bodyEnd(count - 1);
+    int used = offsets[count];
+    if (bodies.length < used)
+      bodies = new int[Integer.highestOneBit(used) << 1];
+    System.arraycopy(frame.bodies(), 0, bodies, 0, used);
+    snakeCount = count;
+    hasPrevious = true;
+  }
+
+  private void putSnakeBody(int id, boolean died, int[] cells, int from, int to) {
+    ensure(5);
+    out.putInt(id).put((byte) (BODY | (died ? DIED : 0)));
+    putCells(cells, from, to);
+  }
+
+  private void putSnake(int id, boolean died, int[] cells, int from, int to) {
+    ensure(5);
+    out.putInt(id).put((byte) (died ? 1 : 0));
+    putCells(cells, from, to);
+  }
+
+  private void putCells(int[] cells, int from, int to) {
+    int n = to - from;
+    ensure(4 + 4 * n);
+    out.putInt(n);
+    out.asIntBuffer().put(cells, from, n);
+    out.position(out.position() + 4 * n);
+  }
+
+  private long index(int cell) {
+    return (long) Cell.y(cell) * width + Cell.x(cell);
+  }
+
+  private void begin(byte type, long sequence) {
+    out.clear();
+    out.putInt(0).put(type).putLong(sequence);
+  }
+
+  // Mensaje listo para enviar: copia exacta de solo lectura, compartida entre clientes
+  private ByteBuffer finish() {
+    out.putInt(0, out.position() - 4);
+    out.flip();
+    var message = ByteBuffer.allocate(out.remaining()).put(out).flip();
+    return message.asReadOnlyBuffer();
+  }
+
+  private void ensure(int bytes) {
+    if (out.remaining() >= bytes)
+      return;
+    int capacity = out.capacity();
+    while (capacity - out.position() < bytes)
+      capacity <<= 1;
+    out.flip();
+    out = ByteBuffer.allocate(capacity).put(out);
+  }
+}
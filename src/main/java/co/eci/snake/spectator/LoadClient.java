@@ -0,0 +1,160 @@
+package co.eci.snake.spectator;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Generador de carga: abre muchos espectadores sobre un solo Selector y cuenta
+ * los mensajes que recibe cada uno. Los primeros --slow clientes leen solo cada
+ * --slow-ms milisegundos con un buffer de recepción pequeño, para ejercitar el
+ * descarte de cuadros del servidor.
+ *
+ * Uso: [--host=H] [--port=P] [--clients=N] [--seconds=S] [--slow=K] [--slow-ms=M]
+ */
+public final class LoadClient {
+  private LoadClient() {}
+
+  public static void main(String[] args) throws IOException, InterruptedException {
+    String host = "127.0.0.1";
+    int port = 7777, clients = 200, seconds = 10, slow = 0, slowMs = 500;
+    for (String arg : args) {
+      int eq = arg.indexOf('=');
+      if (!arg.startsWith("--") || eq < 0)
+        throw new IllegalArgumentException("Unrecognized argument: " + arg);
+      String key = arg.substring(2, eq);
+      String value = arg.substring(eq + 1);
+      switch (key) {
+        case "host" -> host = value;
+        case "port" -> port = Integer.parseInt(value);
+        case "clients" -> clients = Integer.parseInt(value);
+        case "seconds" -> seconds = Integer.parseInt(value);
+        case "slow" -> slow = Integer.parseInt(value);
+        case "slow-ms" -> slowMs = Integer.parseInt(value);
+        default -> throw new IllegalArgumentException("Unknown option: --" + key);
+      }
+    }
+
+    var selector = Selector.open();
+    var spectators = new Spectator[clients];
+    for (int i = 0; i < clients; i++) {
+      var channel = SocketChannel.open();
+      boolean isSlow = i < slow;
+      if (isSlow)
+        channel.setOption(StandardSocketOptions.SO_RCVBUF, 4096);
+      channel.connect(new InetSocketAddress(host, port));
+      channel.configureBlocking(false);
+      spectators[i] = new Spectator(channel, isSlow);
+      // Los lentos no se registran para lectura: se leen solo por temporizador
+      channel.register(selector, isSlow ? 0 : SelectionKey.OP_READ, spectators[i]);
+    }
+
+    long start = System.nanoTime();
+    long end = start + seconds * 1_000_000_000L;
+    long nextReport = start + 1_000_000_000L;
+    long nextSlowRead = start;
+    long lastMessages = 0;
+    while (System.nanoTime() < end) {
+      selector.select(50);
+      var keys = selector.selectedKeys();
+      for (var key : keys) {
+        var s = (Spectator) key.attachment();
+        if (!s.slow)
+          s.read();
+      }
+      keys.clear();
+      long now = System.nanoTime();
+      if (slow > 0 && now >= nextSlowRead) {
+        for (int i = 0; i < slow; i++)
+          spectators[i].read();
+        nextSlowRead = now + slowMs * 1_000_000L;
+      }
+      if (now >= nextReport) {
+        long messages = 0;
+        int open = 0;
+        for (var s : spectators) {
+          messages += s.messages;
+          if (s.channel.isOpen())
+            open++;
+        }
+        System.out.printf("t=%ds clientes=%d mensajes/s=%d%n",
+            (now - start) / 1_000_000_000L, open, messages - lastMessages);
+        lastMessages = messages;
+        nextReport += 1_000_000_000L;
+      }
+    }
+
+    long messages = 0, keyframes = 0, bytes = 0, fastKeyframes = 0, outOfOrder = 0;
+    for (var s : spectators) {
+      messages += s.messages;
+      keyframes += s.keyframes;
+      bytes += s.bytes;
+      outOfOrder += s.outOfOrder;
+      if (!s.slow)
+        fastKeyframes += s.keyframes;
+      s.channel.close();
+    }
+    double elapsed = (System.nanoTime() - start) / 1e9;
+    System.out.printf("Espectadores: %d (%d lentos) durante %.1f s%n", clients, slow, elapsed);
+    System.out.printf("Mensajes: %d (%.0f/s), keyframes: %d (rápidos: %d), fuera de orden: %d%n",
+        messages, messages / elapsed, keyframes, fastKeyframes, outOfOrder);
+    System.out.printf("Recibido: %.1f MiB (%.1f MiB/s)%n", bytes / 1048576.0, bytes / 1048576.0 / elapsed);
+  }
+
+  private static final class Spectator {
+    final SocketChannel channel;
+    final boolean slow;
+    ByteBuffer in = ByteBuffer.allocate(1 << 16);
+    long messages, keyframes, bytes, outOfOrder;
+    long lastSequence = -1;
+
+    Spectator(SocketChannel channel, boolean slow) {
+      this.channel = channel;
+      this.slow = slow;
+    }
+
+    void read() {
+      try {
+        int n;
+        while ((n = channel.read(in)) > 0) {
+          bytes += n;
+          parse();
+        }
+        if (n < 0)
+          channel.close();
+      } catch (IOException e) {
+        try {
+          channel.close();
+        } catch (IOException ignored) {
+          // Ya cerrado
+        }
+      }
+    }
+
+    // Separa los mensajes completos por su prefijo de longitud
+    private void parse() {
+      in.flip();
+      while (in.remaining() >= FrameEncoder.HEADER) {
+        int length = in.getInt(in.position());
+        if (in.remaining() < 4 + length)
+          break;
+        byte type = in.get(in.position() + 4);
+        long sequence = in.getLong(in.position() + 5);
+        if (type == FrameEncoder.KEYFRAME)
+          keyframes++;
+        else if (lastSequence >= 0 && sequence <= lastSequence)
+          outOfOrder++;
+        lastSequence = sequence;
+        messages++;
+        in.position(in.position() + 4 + length);
+      }
+      in.compact();
+      if (!in.hasRemaining())
+        in = ByteBuffer.allocate(in.capacity() * 2).put(in.flip());
+    }
+  }
+}
@@ -0,0 +1,295 @@
+package co.eci.snake.spectator;
+
+import co.eci.snake.core.engine.FrameExchange;
+import co.eci.snake.core.engine.WorldFrame;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Servidor de espectadores sobre java.nio: un único hilo con un Selector acepta
+ * conexiones TCP y transmite a cada cliente los cambios del mundo (ver
+ * FrameEncoder).
+ *
+ * El servidor es el consumidor de su propio FrameExchange y toma el último cuadro
+ * publicado a su propia frecuencia, así nunca frena a la simulación. Cada cuadro
+ * se codifica una sola vez y los clientes comparten el mismo buffer de solo
+ * lectura. Los mensajes pendientes de un cliente se envían juntos con una
+ * escritura gathering. Un cliente con más de MAX_QUEUED mensajes pendientes
+ * pierde su cola (salvo el mensaje a medio enviar) y recibe un KEYFRAME cuando
+ * se pone al día, de modo que un espectador lento no acumula memoria ni retrasa a
+ * los demás.
+ */
+public final class SpectatorServer implements AutoCloseable {
+  // Mensajes pendientes por cliente antes de descartar cuadros
+  static final int MAX_QUEUED = 8;
+  // Mensajes por escritura gathering
+  private static final int BATCH = 16;
+  private static final int SEND_BUFFER = 256 * 1024;
+
+  private final FrameExchange frames = new FrameExchange();
+  private final ServerSocketChannel server;
+  private final Selector selector;
+  private final long periodNanos;
+  private final FrameEncoder encoder = new FrameEncoder();
+  private final List<Client> clients = new ArrayList<>();
+  private final ByteBuffer discard = ByteBuffer.allocate(512);
+  private final ByteBuffer[] batch = new ByteBuffer[BATCH];
+  private long lastSequence = 0;
+  private volatile boolean closed = false;
+  private Thread thread;
+
+  // Estadísticas (las escribe el hilo del servidor)
+  private final AtomicLong framesEncoded = new AtomicLong();
+  private final AtomicLong messagesSent = new AtomicLong();
+  private final AtomicLong framesDropped = new AtomicLong();
+  private final AtomicLong bytesSent = new AtomicLong();
+  private volatile int clientCount = 0;
+
+  /**
+   * @param port puerto TCP (0 elige uno libre, ver port())
+   * @param fps  cuadros por segundo enviados a los espectadores
+   */
+  public SpectatorServer(int port, int fps) {
+    try {
+      this.selector = Selector.open();
+      this.server = ServerSocketChannel.open();
+      server.bind(new InetSocketAddress(port), 1024);
+      server.configureBlocking(false);
+      server.register(selector, SelectionKey.OP_ACCEPT);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Cannot open spectator server on port " + port, e);
+    }
+    this.periodNanos = 1_000_000_000L / fps;
+  }
+
+  /**
+   * Intercambio donde la simulación publica cuadros para los espectadores (por
+   * ejemplo con LockstepEngine.publishFrames o un FramePublisher).
+   */
+  public FrameExchange frames() {
+    return frames;
+  }
+
+  public int port() {
+    return server.socket().getLocalPort();
+  }
+
+  /**
+   * Inicia el hilo del servidor.
+   */
+  public synchronized SpectatorServer start() {
+    if (thread == null) {
+      thread = Thread.ofPlatform().daemon().name("spectator-server").start(this::loop);
+    }
+    return this;
+  }
+
+  private void loop() {
+    long next = System.nanoTime();
+    try {
+      while (!closed) {
+        long wait = next - System.nanoTime();
+        if (wait <= 0) {
+          broadcast();
+          next += periodNanos;
+          if (next < System.nanoTime())
+            next = System.nanoTime() + periodNanos;
+          continue;
+        }
+        selector.select(Math.max(1, wait / 1_000_000));
+        var keys = selector.selectedKeys();
+        for (var key : keys) {
+          if (!key.isValid())
+            continue;
+          if (key.isAcceptable())
+            accept();
+          else {
+            var client = (Client) key.attachment();
+            if (key.isReadable())
+              drain(client);
+            if (key.isValid() && key.isWritable())
+              flush(client);
+          }
+        }
+        keys.clear();
+      }
+    } catch (IOException | ClosedSelectorException e) {
+      if (!closed)
+        throw new IllegalStateException("Spectator server failed", e);
+    } finally {
+      for (Client c : new ArrayList<>(clients))
+        disconnect(c);
+    }
+  }
+
+  private void accept() throws IOException {
+    SocketChannel channel;
+    while ((channel = server.accept()) != null) {
+      channel.configureBlocking(false);
+      channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+      // Buffer de envío acotado: con cientos de clientes limita la memoria del kernel
+      // y hace que un cliente lento llegue antes al descarte de cuadros
+      channel.setOption(StandardSocketOptions.SO_SNDBUF, SEND_BUFFER);
+      var client = new Client(channel);
+      client.key = channel.register(selector, SelectionKey.OP_READ, client);
+      clients.add(client);
+      clientCount = clients.size();
+    }
+  }
+
+  // Codifica el último cuadro (si hay uno nuevo) y lo encola para cada cliente
+  private void broadcast() {
+    WorldFrame frame = frames.acquire();
+    if (frame.sequence() == lastSequence)
+      return;
+    lastSequence = frame.sequence();
+    ByteBuffer delta = encoder.delta(frame);
+    ByteBuffer keyframe = null;
+    framesEncoded.incrementAndGet();
+    for (int i = clients.size() - 1; i >= 0; i--) {
+      Client c = clients.get(i);
+      if (c.needsKeyframe && c.queue.isEmpty()) {
+        if (keyframe == null)
+          keyframe = encoder.keyframe(frame);
+        c.queue.add(keyframe.duplicate());
+        c.needsKeyframe = false;
+      } else if (c.needsKeyframe || c.queue.size() >= MAX_QUEUED) {
+        drop(c);
+      } else {
+        c.queue.add(delta.duplicate());
+      }
+      flush(c);
+    }
+  }
+
+  // Descarta lo pendiente, salvo un mensaje a medio enviar, y pide un KEYFRAME
+  private void drop(Client c) {
+    var head = c.queue.peek();
+    boolean partial = head != null && head.position() > 0;
+    framesDropped.addAndGet(c.queue.size() - (partial ? 1 : 0) + 1);
+    c.queue.clear();
+    if (partial)
+      c.queue.add(head);
+    c.needsKeyframe = true;
+  }
+
+  private void flush(Client c) {
+    if (!c.key.isValid())
+      return;
+    try {
+      while (!c.queue.isEmpty()) {
+        int n = 0;
+        for (ByteBuffer b : c.queue) {
+          batch[n++] = b;
+          if (n == BATCH)
+            break;
+        }
+        long written = c.channel.write(batch, 0, n);
+        bytesSent.addAndGet(written);
+        while (!c.queue.isEmpty() && !c.queue.peek().hasRemaining()) {
+          c.queue.poll();
+          messagesSent.incrementAndGet();
+        }
+        if (written == 0)
+          break;
+      }
+      // Solo interesa OP_WRITE mientras el socket no acepta todo lo pendiente
+      c.key.interestOps(c.queue.isEmpty() ? SelectionKey.OP_READ : SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+    } catch (IOException e) {
+      disconnect(c);
+    } finally {
+      Arrays.fill(batch, null);
+    }
+  }
+
+  // Los espectadores no envían datos: se descartan y se detecta el cierre
+  private void drain(Client c) {
+    try {
+      int n;
+      do {
+        discard.clear();
+        n = c.channel.read(discard);
+      } while (n > 0);
+      if (n < 0)
+        disconnect(c);
+    } catch (IOException e) {
+      disconnect(c);
+    }
+  }
+
+  private void disconnect(Client c) {
+    c.key.cancel();
+    try {
+      c.channel.close();
+    } catch (IOException ignored) {
+      // El cliente ya no está
+    }
+    clients.remove(c);
+    clientCount = clients.size();
+  }
+
+  public int clientCount() {
+    return clientCount;
+  }
+
+  public long framesEncoded() {
+    return framesEncoded.get();
+  }
+
+  public long messagesSent() {
+    return messagesSent.get();
+  }
+
+  /**
+   * Cuadros que algún cliente no recibió por ir atrasado (uno por cliente).
+   */
+  public long framesDropped() {
+    return framesDropped.get();
+  }
+
+  public long bytesSent() {
+    return bytesSent.get();
+  }
+
+  @Override
+  public void close() {
+    closed = true;
+    selector.wakeup();
+    try {
+      if (thread != null)
+        thread.join(1000);
+      server.close();
+      selector.close();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static final class Client {
+    final SocketChannel channel;
+    final ArrayDeque<ByteBuffer> queue = new ArrayDeque<>();
+    SelectionKey key;
+    // true tras descartar cuadros: el siguiente mensaje debe ser un KEYFRAME
+    boolean needsKeyframe = true;
+
+    Client(SocketChannel channel) {
+      this.channel = channel;
+    }
+  }
+}
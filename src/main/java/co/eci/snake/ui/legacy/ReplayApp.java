@@ -0,0 +1,53 @@
+package co.eci.snake.ui.legacy;
+
+import co.eci.snake.core.engine.FrameExchange;
+import co.eci.snake.core.engine.GameClock;
+import co.eci.snake.replay.ReplayPlayer;
+
+import javax.swing.*;
+import java.awt.*;
+import java.nio.file.Path;
+
+/**
+ * Ventana de reproducción: la grabación avanza en un hilo propio a la velocidad
+ * indicada y el panel del juego pinta los cuadros que publica.
+ */
+public final class ReplayApp extends JFrame {
+
+  public ReplayApp(Path file, int ticksPerSecond) {
+    super("The Snake Race - " + file.getFileName());
+    var player = new ReplayPlayer(file);
+    var frames = new FrameExchange(true);
+    frames.back().capture(player.board(), player.snakes());
+    frames.publish();
+
+    var gamePanel = new SnakeApp.GamePanel(player.board(), frames);
+    var status = new JLabel("Reproduciendo a " + ticksPerSecond + " ticks/s");
+    setLayout(new BorderLayout());
+    add(gamePanel, BorderLayout.CENTER);
+    add(status, BorderLayout.SOUTH);
+    setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+    pack();
+    setLocationRelativeTo(null);
+
+    var clock = new GameClock(60, gamePanel::refresh);
+    clock.start();
+    Thread.ofPlatform().daemon().name("replay").start(() -> {
+      String message;
+      try {
+        int ticks = player.play(frames, 1_000_000_000L / ticksPerSecond);
+        message = "Reproducción terminada: " + ticks + " ticks";
+      } catch (IllegalStateException e) {
+        message = "Divergencia: " + e.getMessage();
+      }
+      String text = message;
+      SwingUtilities.invokeLater(() -> status.setText(text));
+    });
+
+    setVisible(true);
+  }
+
+  public static void launch(Path file, int ticksPerSecond) {
+    SwingUtilities.invokeLater(() -> new ReplayApp(file, ticksPerSecond));
+  }
+}
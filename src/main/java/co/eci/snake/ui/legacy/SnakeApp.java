@@ -1,18 +1,35 @@
 package co.eci.snake.ui.legacy;
 
 import co.eci.snake.concurrency.SnakeRunner;
+import co.eci.snake.concurrency.WheelScheduler;
 import co.eci.snake.core.Board;
+import co.eci.snake.core.Board.Item;
+import co.eci.snake.core.Cell;
+import co.eci.snake.core.Checkpoint;
 import co.eci.snake.core.Direction;
-import co.eci.snake.core.Position;
+import co.eci.snake.core.DistanceField;
+import co.eci.snake.core.Leaderboard;
 import co.eci.snake.core.Snake;
+import co.eci.snake.core.WorldGenerator;
+import co.eci.snake.core.engine.FrameExchange;
+import co.eci.snake.core.engine.FramePublisher;
 import co.eci.snake.core.engine.GameClock;
+import co.eci.snake.core.engine.TileIndex;
+import co.eci.snake.core.engine.WorldFrame;
 import co.eci.snake.core.sync.PauseController;
+import co.eci.snake.metrics.FrameEvent;
+import co.eci.snake.metrics.SimulationMetrics;
+import co.eci.snake.spectator.SpectatorServer;
 
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
-import java.util.List;
+import java.awt.image.BufferedImage;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.SplittableRandom;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
 
 public final class SnakeApp extends JFrame {
 
@@ -23,24 +40,55 @@ public final class SnakeApp extends JFrame {
   private final GameClock clock;
   private final java.util.List<Snake> snakes = new java.util.concurrent.CopyOnWriteArrayList<>();
   private boolean isFirstStart = true;
+  // Último podio mostrado en el título (ver showLeader)
+  private java.util.List<Leaderboard.Standing> shownTop;
 
   public SnakeApp() {
     super("The Snake Race");
-    // El tablero se inicializa con dimensiones fijas
-    this.board = new Board(35, 28);
-
-    // Bloqueo inicial de hilos para que no arranquen solos
-    SnakeRunner.isPaused = true;
-
-    int N = Integer.getInteger("snakes", 2);
-    for (int i = 0; i < N; i++) {
-      int x = 2 + (i * 3) % board.width();
-      int y = 2 + (i * 2) % board.height();
-      var dir = Direction.values()[i % Direction.values().length];
-      snakes.add(Snake.of(x, y, dir));
+    // El tablero mide 35x28 salvo -Dwidth=W -Dheight=H (la cámara del panel muestra
+    // una ventana del mundo); -Dseed=S fija su aleatoriedad y la de los giros de
+    // cada serpiente
+    Long seed = Long.getLong("seed");
+    // -Drestore=ARCHIVO reanuda desde un checkpoint en lugar de generar el mundo
+    String restore = System.getProperty("restore");
+    if (restore != null) {
+      var restored = seed != null ? Checkpoint.load(Path.of(restore), seed) : Checkpoint.load(Path.of(restore));
+      this.board = restored.board();
+      snakes.addAll(restored.snakes());
+    } else {
+      int width = Integer.getInteger("width", 35), height = Integer.getInteger("height", 28);
+      // -Doffheap=true guarda el estado por celda fuera del heap (tableros enormes)
+      var storage = Boolean.getBoolean("offheap") ? Board.Storage.OFF_HEAP : Board.Storage.HEAP;
+      // Ítems según densidades y serpientes en celdas vacías distintas, repartidas
+      // por todo el tablero (-Dmice, -Dobstacles y -Dturbo cambian las densidades)
+      var generator = new WorldGenerator()
+          .snakes(Integer.getInteger("snakes", 2))
+          .mice(Double.parseDouble(System.getProperty("mice", "0.006")))
+          .obstacles(Double.parseDouble(System.getProperty("obstacles", "0.004")))
+          .turbo(Double.parseDouble(System.getProperty("turbo", "0.003")));
+      var world = generator.generate(width, height,
+          seed != null ? seed : ThreadLocalRandom.current().nextLong(), storage);
+      this.board = world.board();
+      snakes.addAll(world.snakes());
     }
 
-    this.gamePanel = new GamePanel(board, () -> snakes);
+    // Los hilos arrancan bloqueados: el controlador inicia en STOPPED
+    this.pauseController = new PauseController();
+    SimulationMetrics.registerMBean();
+
+    // La simulación publica cuadros completos; el EDT solo intercambia buffers
+    var frames = new FrameExchange(true);
+    var publisher = new FramePublisher(board, snakes, frames, 60);
+    publisher.publishOnce();
+    Thread.ofPlatform().daemon().name("frame-publisher").start(publisher);
+    // -Dspectate=PUERTO transmite la carrera a espectadores remotos a 30 cuadros/s
+    Integer spectatePort = Integer.getInteger("spectate");
+    if (spectatePort != null) {
+      var spectators = new SpectatorServer(spectatePort, 30).start();
+      var spectatorFrames = new FramePublisher(board, snakes, spectators.frames(), 30);
+      Thread.ofPlatform().daemon().name("spectator-publisher").start(spectatorFrames);
+    }
+    this.gamePanel = new GamePanel(board, frames);
     this.actionButton = new JButton("Iniciar");
 
     setLayout(new BorderLayout());
@@ -51,13 +99,36 @@ public final class SnakeApp extends JFrame {
     pack();
     setLocationRelativeTo(null);
 
-    // Reloj de refresco visual
-    this.pauseController = new PauseController();
-    this.clock = new GameClock(60, () -> SwingUtilities.invokeLater(gamePanel::repaint), pauseController);
+    // Reloj de refresco visual: cada cuadro corre en el EDT; refresh() redibuja solo
+    // las celdas modificadas e interpolate() desliza cabezas y colas entre pasos
+    this.clock = new GameClock(60, frameNanos -> {
+      gamePanel.refresh();
+      gamePanel.interpolate(frameNanos);
+      showLeader();
+    }, pauseController);
 
-    // Uso de Virtual Threads para autonomía de cada serpiente
+    // Uso de Virtual Threads para autonomía de cada serpiente; con
+    // -Dscheduler=wheel las serpientes comparten una rueda de tiempo
     var exec = Executors.newVirtualThreadPerTaskExecutor();
-    snakes.forEach(s -> exec.submit(new SnakeRunner(s, board, snakes)));
+    var wheel = "wheel".equals(System.getProperty("scheduler")) ? new WheelScheduler(pauseController).start() : null;
+    var seeds = seed != null ? new SplittableRandom(seed) : null;
+    // -Dautopilot=true dirige las serpientes hacia la comida con un campo compartido
+    DistanceField autopilot = null;
+    if (Boolean.getBoolean("autopilot")) {
+      autopilot = new DistanceField(board);
+      autopilot.compute();
+      Thread.ofPlatform().daemon().name("autopilot-field").start(autopilot.refresher(30));
+    }
+    for (var s : snakes) {
+      if (s.isDead())
+        continue;
+      var runner = new SnakeRunner(s, board, snakes, pauseController, seeds != null ? seeds.split() : null,
+          autopilot);
+      if (wheel != null)
+        wheel.schedule(runner);
+      else
+        exec.submit(runner);
+    }
 
     actionButton.addActionListener((ActionEvent e) -> togglePause());
 
@@ -100,30 +171,43 @@ public final class SnakeApp extends JFrame {
     });
   }
 
+  // La clasificación se lee en vivo sin pausar: solo cambia el título si el podio cambió
+  private void showLeader() {
+    var leaderboard = board.leaderboard();
+    var top = leaderboard.top();
+    if (top == shownTop)
+      return;
+    shownTop = top;
+    var leader = top.isEmpty() ? null : top.get(0);
+    setTitle(leader == null ? "The Snake Race"
+        : String.format("The Snake Race - líder: #%d (%d segmentos), muertas: %d",
+            leader.snake().id(), leader.length(), leaderboard.deathCount()));
+  }
+
   private void togglePause() {
     if (isFirstStart) {
       isFirstStart = false;
-      synchronized (SnakeRunner.gameMonitor) {
-        SnakeRunner.isPaused = false;
-        SnakeRunner.gameMonitor.notifyAll();
-      }
+      pauseController.start();
       clock.start();
       actionButton.setText("Pausar");
       return;
     }
 
-    if (!SnakeRunner.isPaused) {
-      SnakeRunner.isPaused = true;
+    if (!pauseController.isPaused()) {
+      // Retorna cuando ningún paso está en curso: el mundo queda congelado y las
+      // estadísticas se leen sin candados y de forma consistente entre sí
+      pauseController.pause();
       clock.pause();
       actionButton.setText("Reanudar");
 
-      Snake longest = snakes.stream()
-          .filter(s -> !s.isDead())
-          .max((s1, s2) -> Integer.compare(s1.getLength(), s2.getLength()))
-          .orElse(snakes.get(0));
+      // Lecturas O(1) de la clasificación que el tablero mantiene al crecer o morir
+      var leaderboard = board.leaderboard();
+      var leader = leaderboard.leader();
+      int longestLength = leader != null ? leader.length() : snakes.get(0).getLength();
 
-      String worstInfo = (SnakeRunner.firstDead != null)
-          ? "La peor serpiente (murió primero) medía: " + SnakeRunner.firstDead.getLength()
+      var firstDead = leaderboard.firstDead();
+      String worstInfo = (firstDead != null)
+          ? "La peor serpiente (murió primero) medía: " + firstDead.length()
           : "Ninguna serpiente ha muerto aún.";
 
       // Mensaje sin la línea divisoria solicitado
@@ -132,9 +216,9 @@ public final class SnakeApp extends JFrame {
               "Serpiente viva más larga: %d segmentos\n" +
               "%s\n\n" +
               "¿Desea continuar o finalizar la carrera?",
-          longest.getLength(), worstInfo);
+          longestLength, worstInfo);
 
-      Object[] options = { "Continuar", "Finalizar" };
+      Object[] options = { "Continuar", "Guardar y finalizar", "Finalizar" };
       int selection = JOptionPane.showOptionDialog(
           this,
           stats,
@@ -146,85 +230,639 @@ public final class SnakeApp extends JFrame {
           options[0]);
 
       if (selection == 1) {
+        // El mundo sigue congelado por la pausa: el checkpoint es consistente
+        var file = Path.of(System.getProperty("checkpoint", "snake.ckpt"));
+        Checkpoint.save(file, board, snakes);
+        System.out.println("Checkpoint guardado en " + file.toAbsolutePath());
+      }
+      if (selection == 1 || selection == 2) {
         System.exit(0);
       }
 
     } else {
-      synchronized (SnakeRunner.gameMonitor) {
-        SnakeRunner.isPaused = false;
-        SnakeRunner.gameMonitor.notifyAll();
-      }
+      pauseController.resume();
       clock.resume();
       actionButton.setText("Pausar");
     }
   }
 
+  /**
+   * Panel del tablero con cámara: muestra una ventana del mundo que se desplaza
+   * arrastrando (o siguiendo al jugador, tecla C) y se acerca o aleja con la
+   * rueda del ratón. Solo se pinta lo que cae en la ventana: el TileIndex del
+   * cuadro (construido por el productor al publicarlo) entrega los ítems y segmentos de las baldosas visibles, y el lienzo en
+   * memoria y el estado por celda miden lo que la ventana, no lo que el mundo.
+   * En cada cuadro solo se redibujan las celdas visibles cuyo contenido cambió;
+   * paintComponent se limita a copiar el área sucia del lienzo. Si el mundo no
+   * cabe en la ventana, un minimapa muestra el tablero completo reducido.
+   */
   public static final class GamePanel extends JPanel {
+    // Códigos de contenido por celda (los de serpiente se suman a SNAKE)
+    private static final int EMPTY = 0, OBSTACLE = 1, MOUSE = 2, TELEPORT = 3, TURBO = 4, SNAKE = 16;
+    // Degradado de la cabeza a la cola: max(0, 40 - 2 * i) para i = 0..20
+    private static final int SHADES = 21;
+    private static final Color GRID = new Color(220, 220, 220);
+    private static final Color OBSTACLE_COLOR = new Color(255, 102, 0);
+    // Paleta precalculada [jugador | resto | muerta][tono]
+    private static final Color[] PALETTE = palette(
+        new Color(0, 170, 0), new Color(0, 160, 180), Color.GRAY);
+    // Niveles de acercamiento (píxeles por celda); con menos de DETAIL_CELL no se
+    // dibujan la grilla ni los óvalos
+    private static final int[] ZOOMS = { 2, 3, 4, 6, 8, 10, 14, 20, 28, 40 };
+    private static final int DETAIL_CELL = 8;
+    // Tamaño inicial máximo de la ventana en píxeles
+    private static final int MAX_VIEW_WIDTH = 1200, MAX_VIEW_HEIGHT = 800;
+
     private final Board board;
-    private final Supplier snakesSupplier;
-    private final int cell = 20;
+    private final FrameExchange frames;
+    private final Minimap minimap;
+
+    // Cámara, solo accedida desde el EDT: celda del mundo en la esquina superior
+    // izquierda, píxeles por celda y tamaño de la ventana en celdas (recortado al
+    // mundo)
+    private int cell = 20;
+    private int originX = 0, originY = 0;
+    private int cols, rows;
+    private boolean follow = true;
+    private boolean recenter = false;
+    private int dragX, dragY, dragOriginX, dragOriginY;
+    private boolean draggingMinimap = false;
+
+    // Estado del lienzo por celda de la ventana, solo accedido desde el EDT
+    private BufferedImage canvas;
+    private BufferedImage emptyTile;
+    private Graphics2D canvasGraphics;
+    private int[] shown = new int[0];
+    private int[] wanted = new int[0];
+    private int[] wantedStamp = new int[0];
+    private int stamp = 0;
+    private int[] previousCells = new int[64];
+    private int previousCount = 0;
+    private int[] currentCells = new int[64];
+    private int currentCount = 0;
+    private long renderedSequence = -1;
+
+    // Interpolación entre pasos por índice de serpiente en el cuadro (solo EDT):
+    // la cabeza entra a su celda y la cola deja la suya de a poco, según la
+    // fracción transcurrida del paso estimado de cada serpiente
+    private static final long DEFAULT_STEP_NANOS = 80_000_000L;
+    private static final long MAX_STEP_NANOS = 250_000_000L;
+    private int tracked = 0;
+    private int[] lastHead = new int[8];
+    private int[] lastTail = new int[8];
+    private long[] movedAt = new long[8];
+    private long[] stepNanos = new long[8];
+    // Celda del mundo que se interpola (-1 = ninguna) y lado al que se ancla el segmento
+    private int[] headCell = new int[8];
+    private int[] headAnchor = new int[8];
+    private int[] vacatedCell = new int[8];
+    private int[] vacatedAnchor = new int[8];
+    // Segmentos parciales del cuadro actual: (celda, ancla, largo, código) planos
+    private int[] overlay = new int[64];
+    private int overlayCount = 0;
+
+    /**
+     * @param frames cuadros publicados por la simulación, indexados por baldosas
+     *               (new FrameExchange(true)); el panel solo lee el último cuadro
+     *               y nunca toca el estado vivo del tablero
+     */
+    public GamePanel(Board board, FrameExchange frames) {
+      if (!frames.indexesTiles())
+        throw new IllegalArgumentException("GamePanel needs a FrameExchange that indexes tiles");
+      this.board = board;
+      this.frames = frames;
+      this.minimap = new Minimap(board.width(), board.height());
+      setPreferredSize(new Dimension(Math.min(board.width() * cell, MAX_VIEW_WIDTH) + 1,
+          Math.min(board.height() * cell, MAX_VIEW_HEIGHT) + 40));
+      setBackground(Color.WHITE);
+
+      var mouse = new java.awt.event.MouseAdapter() {
+        @Override
+        public void mousePressed(java.awt.event.MouseEvent e) {
+          draggingMinimap = minimapVisible() && minimapBounds().contains(e.getPoint());
+          if (draggingMinimap) {
+            // Un clic en el minimapa deja de seguir al jugador, si no followPlayer
+            // devolvería la cámara en el siguiente cuadro
+            follow = false;
+            centerOnMinimap(e.getX(), e.getY());
+            return;
+          }
+          dragX = e.getX();
+          dragY = e.getY();
+          dragOriginX = originX;
+          dragOriginY = originY;
+        }
+
+        @Override
+        public void mouseDragged(java.awt.event.MouseEvent e) {
+          follow = false;
+          if (draggingMinimap)
+            centerOnMinimap(e.getX(), e.getY());
+          else
+            moveCamera(dragOriginX + (dragX - e.getX()) / cell, dragOriginY + (dragY - e.getY()) / cell, cell);
+        }
 
-    @FunctionalInterface
-    public interface Supplier {
-      List<Snake> get();
+        @Override
+        public void mouseWheelMoved(java.awt.event.MouseWheelEvent e) {
+          int level = Arrays.binarySearch(ZOOMS, cell);
+          int next = ZOOMS[Math.max(0, Math.min(ZOOMS.length - 1, level - e.getWheelRotation()))];
+          // La celda bajo el puntero queda fija
+          int wx = originX + e.getX() / cell, wy = originY + e.getY() / cell;
+          moveCamera(wx - e.getX() / next, wy - e.getY() / next, next);
+        }
+      };
+      addMouseListener(mouse);
+      addMouseMotionListener(mouse);
+      addMouseWheelListener(mouse);
+      addComponentListener(new java.awt.event.ComponentAdapter() {
+        @Override
+        public void componentResized(java.awt.event.ComponentEvent e) {
+          moveCamera(originX, originY, cell);
+        }
+      });
+      getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW).put(KeyStroke.getKeyStroke("C"), "follow");
+      getActionMap().put("follow", new AbstractAction() {
+        @Override
+        public void actionPerformed(ActionEvent e) {
+          follow = true;
+          recenter = true;
+        }
+      });
     }
 
-    public GamePanel(Board board, Supplier snakesSupplier) {
-      this.board = board;
-      this.snakesSupplier = snakesSupplier;
-      setPreferredSize(new Dimension(board.width() * cell + 1, board.height() * cell + 40));
-      setBackground(Color.WHITE);
+    private static Color[] palette(Color... bases) {
+      var colors = new Color[bases.length * SHADES];
+      for (int b = 0; b < bases.length; b++) {
+        for (int i = 0; i < SHADES; i++) {
+          int shade = Math.max(0, 40 - i * 2);
+          colors[b * SHADES + i] = new Color(
+              Math.min(255, bases[b].getRed() + shade),
+              Math.min(255, bases[b].getGreen() + shade),
+              Math.min(255, bases[b].getBlue() + shade));
+        }
+      }
+      return colors;
+    }
+
+    /**
+     * Mueve la cámara (recortada al mundo). Si la ventana cambia, el lienzo se
+     * descarta y el siguiente pintado lo reconstruye con el último cuadro.
+     */
+    private void moveCamera(int x, int y, int newCell) {
+      int viewWidth = getWidth() > 0 ? getWidth() : getPreferredSize().width;
+      int viewHeight = getHeight() > 0 ? getHeight() : getPreferredSize().height;
+      int newCols = Math.min(board.width(), Math.ceilDiv(viewWidth, newCell));
+      int newRows = Math.min(board.height(), Math.ceilDiv(viewHeight, newCell));
+      x = Math.max(0, Math.min(board.width() - newCols, x));
+      y = Math.max(0, Math.min(board.height() - newRows, y));
+      if (x == originX && y == originY && newCell == cell && newCols == cols && newRows == rows)
+        return;
+      originX = x;
+      originY = y;
+      cell = newCell;
+      cols = newCols;
+      rows = newRows;
+      canvas = null;
+      repaint();
+    }
+
+    // Con la cámara en modo seguimiento, recentra si la cabeza del jugador sale
+    // de la mitad central de la ventana
+    private void followPlayer(WorldFrame frame) {
+      if (!follow || frame.snakeCount() == 0 || frame.bodyStart(0) == frame.bodyEnd(0))
+        return;
+      int head = frame.bodies()[frame.bodyStart(0)];
+      int x = Cell.x(head) - originX, y = Cell.y(head) - originY;
+      if (recenter || x < cols / 4 || x >= cols - cols / 4 || y < rows / 4 || y >= rows - rows / 4)
+        moveCamera(Cell.x(head) - cols / 2, Cell.y(head) - rows / 2, cell);
+      recenter = false;
+    }
+
+    /**
+     * Actualiza el lienzo con el último cuadro publicado y solicita el repintado
+     * de la región modificada. Debe llamarse desde el EDT.
+     */
+    public void refresh() {
+      var frame = frames.acquire();
+      if (canvas == null || frame.sequence() != renderedSequence) {
+        renderedSequence = frame.sequence();
+        refresh(frame);
+      }
+    }
+
+    /**
+     * Dibuja en el lienzo las celdas visibles que cambiaron respecto al cuadro
+     * anterior. Debe llamarse desde el EDT.
+     */
+    public void refresh(WorldFrame frame) {
+      var index = frame.tiles();
+      followPlayer(frame);
+      ensureCanvas();
+      stamp++;
+      currentCount = 0;
+      int[] cells = index.cells(), tags = index.tags();
+      int tx0 = originX >> TileIndex.TILE_SHIFT, tx1 = (originX + cols - 1) >> TileIndex.TILE_SHIFT;
+      int ty0 = originY >> TileIndex.TILE_SHIFT, ty1 = (originY + rows - 1) >> TileIndex.TILE_SHIFT;
+      for (int ty = ty0; ty <= ty1; ty++) {
+        for (int tx = tx0; tx <= tx1; tx++) {
+          for (int e = index.tileStart(tx, ty); e < index.tileEnd(tx, ty); e++) {
+            int x = Cell.x(cells[e]) - originX, y = Cell.y(cells[e]) - originY;
+            if (x < 0 || x >= cols || y < 0 || y >= rows)
+              continue;
+            want(y * cols + x, code(frame, tags[e]));
+          }
+        }
+      }
+
+      int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE, maxX = -1, maxY = -1;
+      for (int n = 0; n < currentCount + previousCount; n++) {
+        int i = n < currentCount ? currentCells[n] : previousCells[n - currentCount];
+        int code = wantedStamp[i] == stamp ? wanted[i] : EMPTY;
+        if (shown[i] == code)
+          continue;
+        shown[i] = code;
+        int x = i % cols, y = i / cols;
+        drawCell(x, y, code);
+        minX = Math.min(minX, x);
+        minY = Math.min(minY, y);
+        maxX = Math.max(maxX, x);
+        maxY = Math.max(maxY, y);
+      }
+      var swap = previousCells;
+      previousCells = currentCells;
+      previousCount = currentCount;
+      currentCells = swap;
+
+      if (maxX >= 0)
+        repaint(minX * cell, minY * cell, (maxX - minX + 1) * cell + 1, (maxY - minY + 1) * cell + 1);
+      if (minimapVisible() && minimap.update(frame))
+        repaint(minimapBounds());
+      track(frame);
+      overlayCount = 0;
+    }
+
+    private static int code(WorldFrame frame, int tag) {
+      if (TileIndex.isItem(tag)) {
+        return switch (TileIndex.item(tag)) {
+          case OBSTACLE -> OBSTACLE;
+          case MOUSE -> MOUSE;
+          case TELEPORT -> TELEPORT;
+          case TURBO -> TURBO;
+        };
+      }
+      int idx = TileIndex.snake(tag);
+      return SNAKE + (frame.isDead(idx) ? 2 : idx == 0 ? 0 : 1) * SHADES + Math.min(TileIndex.rank(tag), SHADES - 1);
+    }
+
+    // Detecta qué serpientes avanzaron en el cuadro y ajusta su paso estimado
+    private void track(WorldFrame frame) {
+      int n = frame.snakeCount();
+      if (lastHead.length < n) {
+        int size = Integer.highestOneBit(n) << 1;
+        lastHead = Arrays.copyOf(lastHead, size);
+        lastTail = Arrays.copyOf(lastTail, size);
+        movedAt = Arrays.copyOf(movedAt, size);
+        stepNanos = Arrays.copyOf(stepNanos, size);
+        headCell = Arrays.copyOf(headCell, size);
+        headAnchor = Arrays.copyOf(headAnchor, size);
+        vacatedCell = Arrays.copyOf(vacatedCell, size);
+        vacatedAnchor = Arrays.copyOf(vacatedAnchor, size);
+      }
+      int[] bodies = frame.bodies();
+      long t = frame.captureNanos();
+      for (int idx = 0; idx < n; idx++) {
+        int start = frame.bodyStart(idx), end = frame.bodyEnd(idx);
+        if (start == end || frame.isDead(idx)) {
+          headCell[idx] = vacatedCell[idx] = -1;
+          continue;
+        }
+        int head = worldIndex(bodies[start]), tail = worldIndex(bodies[end - 1]);
+        if (idx >= tracked) {
+          lastHead[idx] = head;
+          lastTail[idx] = tail;
+          movedAt[idx] = t;
+          stepNanos[idx] = DEFAULT_STEP_NANOS;
+          headCell[idx] = vacatedCell[idx] = -1;
+          continue;
+        }
+        if (head == lastHead[idx])
+          continue;
+        // Promedio móvil del intervalo entre pasos (sigue el cambio a turbo);
+        // los intervalos largos son pausas y no cuentan
+        long interval = t - movedAt[idx];
+        if (interval < MAX_STEP_NANOS)
+          stepNanos[idx] += (interval - stepNanos[idx]) >> 2;
+        movedAt[idx] = t;
+        // Si avanzó más de una celda (teleport o cuadros perdidos) no se interpola
+        headAnchor[idx] = anchor(head, lastHead[idx]);
+        headCell[idx] = headAnchor[idx] < 0 ? -1 : head;
+        vacatedAnchor[idx] = tail != lastTail[idx] ? anchor(lastTail[idx], tail) : -1;
+        vacatedCell[idx] = vacatedAnchor[idx] < 0 ? -1 : lastTail[idx];
+        lastHead[idx] = head;
+        lastTail[idx] = tail;
+      }
+      tracked = n;
+    }
+
+    // Lado de la celda from que toca a la celda vecina to (con wrap-around), como
+    // (dx + 1) | (dy + 1) << 2, o -1 si no son vecinas
+    private int anchor(int from, int to) {
+      int w = board.width(), h = board.height();
+      int dx = to % w - from % w, dy = to / w - from / w;
+      if (dx == w - 1) dx = -1; else if (dx == 1 - w) dx = 1;
+      if (dy == h - 1) dy = -1; else if (dy == 1 - h) dy = 1;
+      if (Math.abs(dx) + Math.abs(dy) != 1)
+        return -1;
+      return (dx + 1) | (dy + 1) << 2;
+    }
+
+    /**
+     * Calcula los segmentos parciales del instante dado (cabezas entrando, colas
+     * saliendo) y repinta sus celdas. Se llama en cada cuadro del GameClock después
+     * de refresh(), aunque no haya un cuadro nuevo de la simulación: el movimiento
+     * avanza a la tasa de la pantalla y no a la de los pasos. Debe llamarse desde
+     * el EDT.
+     */
+    public void interpolate(long frameNanos) {
+      overlayCount = 0;
+      if (canvas == null)
+        return;
+      int size = cell - 2 * inset(2);
+      for (int idx = 0; idx < tracked; idx++) {
+        int head = headCell[idx], vacated = vacatedCell[idx];
+        if (head < 0 && vacated < 0)
+          continue;
+        double alpha = (double) (frameNanos - movedAt[idx]) / stepNanos[idx];
+        if (alpha >= 1) {
+          // Último repintado: el lienzo ya muestra el paso completo
+          headCell[idx] = vacatedCell[idx] = -1;
+          repaintCell(local(head));
+          repaintCell(local(vacated));
+          continue;
+        }
+        int length = (int) (Math.max(0, alpha) * size);
+        int h = local(head), v = local(vacated), t = local(lastTail[idx]);
+        if (h >= 0 && shown[h] >= SNAKE)
+          addOverlay(h, headAnchor[idx], length, shown[h]);
+        if (v >= 0 && t >= 0 && shown[v] == EMPTY && shown[t] >= SNAKE)
+          addOverlay(v, vacatedAnchor[idx], size - length, shown[t]);
+      }
+    }
+
+    private void addOverlay(int i, int anchor, int length, int code) {
+      if (overlayCount + 4 > overlay.length)
+        overlay = Arrays.copyOf(overlay, overlay.length * 2);
+      overlay[overlayCount++] = i;
+      overlay[overlayCount++] = anchor;
+      overlay[overlayCount++] = length;
+      overlay[overlayCount++] = code;
+      repaintCell(i);
+    }
+
+    // Celda de la ventana que muestra la celda del mundo, o -1 si no es visible
+    private int local(int world) {
+      if (world < 0)
+        return -1;
+      int x = world % board.width() - originX, y = world / board.width() - originY;
+      return x < 0 || x >= cols || y < 0 || y >= rows ? -1 : y * cols + x;
+    }
+
+    private void repaintCell(int i) {
+      if (i >= 0)
+        repaint((i % cols) * cell, (i / cols) * cell, cell + 1, cell + 1);
+    }
+
+    // Dibuja los segmentos parciales sobre el lienzo ya copiado
+    private void paintOverlay(Graphics g) {
+      int border = inset(2), size = cell - 2 * border;
+      for (int k = 0; k < overlayCount; k += 4) {
+        int i = overlay[k], anchor = overlay[k + 1], length = overlay[k + 2];
+        int px = (i % cols) * cell, py = (i / cols) * cell;
+        g.drawImage(emptyTile, px, py, null);
+        if (length <= 0)
+          continue;
+        int ax = (anchor & 3) - 1, ay = (anchor >> 2) - 1;
+        g.setColor(PALETTE[overlay[k + 3] - SNAKE]);
+        g.fillRect(ax > 0 ? px + border + size - length : px + border,
+            ay > 0 ? py + border + size - length : py + border,
+            ax != 0 ? length : size, ay != 0 ? length : size);
+      }
+    }
+
+    private int worldIndex(int packed) {
+      return Cell.y(packed) * board.width() + Cell.x(packed);
+    }
+
+    private void want(int i, int code) {
+      if (wantedStamp[i] != stamp) {
+        wantedStamp[i] = stamp;
+        if (currentCount == currentCells.length)
+          currentCells = Arrays.copyOf(currentCells, currentCount * 2);
+        currentCells[currentCount++] = i;
+      }
+      wanted[i] = code;
+    }
+
+    private void drawCell(int x, int y, int code) {
+      var g2 = canvasGraphics;
+      int px = x * cell, py = y * cell;
+      g2.drawImage(emptyTile, px, py, null);
+      switch (code) {
+        case EMPTY -> { }
+        case OBSTACLE -> fill(g2, OBSTACLE_COLOR, px, py, 2, false);
+        case MOUSE -> fill(g2, Color.BLACK, px, py, 4, true);
+        case TELEPORT -> fill(g2, Color.RED, px, py, 6, true);
+        case TURBO -> fill(g2, Color.BLUE, px, py, 6, false);
+        default -> fill(g2, PALETTE[code - SNAKE], px, py, 2, false);
+      }
+    }
+
+    // Margen escalado desde el diseño original de 20 px por celda
+    private int inset(int inset) {
+      return inset * cell / 20;
+    }
+
+    private void fill(Graphics2D g2, Color color, int px, int py, int inset, boolean oval) {
+      int border = inset(inset);
+      int size = cell - 2 * border;
+      g2.setColor(color);
+      if (oval && cell >= DETAIL_CELL)
+        g2.fillOval(px + border, py + border, size, size);
+      else
+        g2.fillRect(px + border, py + border, size, size);
+    }
+
+    /**
+     * Crea el lienzo de la ventana con la grilla (fondo cacheado) y el mosaico de
+     * celda vacía; todas las celdas visibles quedan por dibujar.
+     */
+    private void ensureCanvas() {
+      if (canvas != null)
+        return;
+      if (cols == 0)
+        moveCamera(originX, originY, cell);
+      int w = cols * cell + 1, h = rows * cell + 1;
+      canvas = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+      if (canvasGraphics != null)
+        canvasGraphics.dispose();
+      canvasGraphics = canvas.createGraphics();
+      canvasGraphics.setColor(Color.WHITE);
+      canvasGraphics.fillRect(0, 0, w, h);
+      if (cell >= DETAIL_CELL) {
+        canvasGraphics.setColor(GRID);
+        for (int x = 0; x <= cols; x++)
+          canvasGraphics.drawLine(x * cell, 0, x * cell, rows * cell);
+        for (int y = 0; y <= rows; y++)
+          canvasGraphics.drawLine(0, y * cell, cols * cell, y * cell);
+      }
+      emptyTile = copyOf(canvas.getSubimage(0, 0, cell + 1, cell + 1));
+      // Suaviza los óvalos; en rectángulos alineados a píxel no altera el resultado
+      canvasGraphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+
+      int cells = cols * rows;
+      if (shown.length < cells) {
+        shown = new int[cells];
+        wanted = new int[cells];
+        wantedStamp = new int[cells];
+        stamp = 0;
+      } else {
+        Arrays.fill(shown, 0, cells, EMPTY);
+      }
+      previousCount = 0;
+      overlayCount = 0;
+    }
+
+    private static BufferedImage copyOf(BufferedImage image) {
+      var copy = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+      var g = copy.createGraphics();
+      g.drawImage(image, 0, 0, null);
+      g.dispose();
+      return copy;
+    }
+
+    private boolean minimapVisible() {
+      return cols < board.width() || rows < board.height();
+    }
+
+    // Esquina inferior derecha del panel, con un margen
+    private Rectangle minimapBounds() {
+      return new Rectangle(getWidth() - minimap.width() - 10, getHeight() - minimap.height() - 10,
+          minimap.width() + 1, minimap.height() + 1);
+    }
+
+    private void centerOnMinimap(int px, int py) {
+      var bounds = minimapBounds();
+      int wx = (px - bounds.x) * minimap.block(), wy = (py - bounds.y) * minimap.block();
+      moveCamera(wx - cols / 2, wy - rows / 2, cell);
     }
 
     @Override
     protected void paintComponent(Graphics g) {
+      var event = new FrameEvent();
+      event.begin();
+      long start = System.nanoTime();
       super.paintComponent(g);
-      var g2 = (Graphics2D) g.create();
-      g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-
-      g2.setColor(new Color(220, 220, 220));
-      for (int x = 0; x <= board.width(); x++)
-        g2.drawLine(x * cell, 0, x * cell, board.height() * cell);
-      for (int y = 0; y <= board.height(); y++)
-        g2.drawLine(0, y * cell, board.width() * cell, y * cell);
-
-      g2.setColor(new Color(255, 102, 0));
-      for (var p : board.obstacles())
-        g2.fillRect(p.x() * cell + 2, p.y() * cell + 2, cell - 4, cell - 4);
-
-      g2.setColor(Color.BLACK);
-      for (var p : board.mice())
-        g2.fillOval(p.x() * cell + 4, p.y() * cell + 4, cell - 8, cell - 8);
-
-      g2.setColor(Color.RED);
-      for (var p : board.teleports().keySet())
-        g2.fillOval(p.x() * cell + 6, p.y() * cell + 6, cell - 12, cell - 12);
-
-      g2.setColor(Color.BLUE);
-      for (var p : board.turbo())
-        g2.fillRect(p.x() * cell + 6, p.y() * cell + 6, cell - 12, cell - 12);
-
-      var snakesList = snakesSupplier.get();
-      int idx = 0;
-      for (Snake s : snakesList) {
-        var body = s.snapshot(); // Uso de snapshot para evitar Tearing
-        int i = 0;
-        for (Position p : body) {
-          Color base = (idx == 0) ? new Color(0, 170, 0) : new Color(0, 160, 180);
-          if (s.isDead())
-            base = Color.GRAY;
+      if (canvas == null)
+        refresh();
+      // Copia solo la región recortada (clip) del lienzo ya dibujado
+      g.drawImage(canvas, 0, 0, null);
+      paintOverlay(g);
+      if (minimapVisible()) {
+        var bounds = minimapBounds();
+        if (g.getClipBounds() == null || g.getClipBounds().intersects(bounds))
+          minimap.paint(g, bounds.x, bounds.y, originX, originY, cols, rows);
+      }
+      SimulationMetrics.get().recordPaint(System.nanoTime() - start);
+      event.end();
+      if (event.shouldCommit()) {
+        event.phase = "paint";
+        event.commit();
+      }
+    }
+  }
 
-          int shade = Math.max(0, 40 - i * 2);
-          g2.setColor(new Color(
-              Math.min(255, base.getRed() + shade),
-              Math.min(255, base.getGreen() + shade),
-              Math.min(255, base.getBlue() + shade)));
-          g2.fillRect(p.x() * cell + 2, p.y() * cell + 2, cell - 4, cell - 4);
-          i++;
-        }
-        idx++;
+  /**
+   * Minimapa con nivel de detalle: el mundo reducido a lo sumo MAX_SIDE píxeles
+   * por lado, un píxel por bloque de celdas con el contenido más visible del
+   * bloque (serpientes sobre ítems). Se reconstruye desde las listas del cuadro,
+   * no recorriendo el tablero, y a lo sumo REBUILD_NANOS veces por segundo.
+   */
+  private static final class Minimap {
+    private static final int MAX_SIDE = 160;
+    private static final long REBUILD_NANOS = 250_000_000L;
+    private static final int BACKGROUND = 0xF4F4F4, OBSTACLE = 0xFF6600, MOUSE = 0x000000, TELEPORT = 0xFF0000,
+        TURBO = 0x0000FF, PLAYER = 0x00AA00, SNAKE = 0x00A0B4, DEAD = 0x808080;
+
+    private final int block;
+    private final BufferedImage image;
+    private final int[] pixels;
+    private long builtAt;
+
+    Minimap(int worldWidth, int worldHeight) {
+      this.block = Math.max(1, Math.ceilDiv(Math.max(worldWidth, worldHeight), MAX_SIDE));
+      this.image = new BufferedImage(Math.ceilDiv(worldWidth, block), Math.ceilDiv(worldHeight, block),
+          BufferedImage.TYPE_INT_RGB);
+      this.pixels = ((java.awt.image.DataBufferInt) image.getRaster().getDataBuffer()).getData();
+      // La primera llamada a update() siempre reconstruye
+      this.builtAt = System.nanoTime() - REBUILD_NANOS;
+    }
+
+    int width() {
+      return image.getWidth();
+    }
+
+    int height() {
+      return image.getHeight();
+    }
+
+    /**
+     * Celdas del mundo por píxel del minimapa.
+     */
+    int block() {
+      return block;
+    }
+
+    /**
+     * Reconstruye la imagen si pasó el período. O(ítems + segmentos).
+     *
+     * @return true si la imagen cambió
+     */
+    boolean update(WorldFrame frame) {
+      long now = System.nanoTime();
+      if (now - builtAt < REBUILD_NANOS)
+        return false;
+      builtAt = now;
+      Arrays.fill(pixels, BACKGROUND);
+      plot(frame, Item.OBSTACLE, OBSTACLE);
+      plot(frame, Item.MOUSE, MOUSE);
+      plot(frame, Item.TELEPORT, TELEPORT);
+      plot(frame, Item.TURBO, TURBO);
+      int[] bodies = frame.bodies();
+      for (int idx = 0; idx < frame.snakeCount(); idx++) {
+        int color = frame.isDead(idx) ? DEAD : idx == 0 ? PLAYER : SNAKE;
+        for (int k = frame.bodyStart(idx); k < frame.bodyEnd(idx); k++)
+          plot(bodies[k], color);
       }
-      g2.dispose();
+      return true;
+    }
+
+    private void plot(WorldFrame frame, Item item, int color) {
+      int[] cells = frame.items(item);
+      for (int k = 0; k < frame.itemCount(item); k++)
+        plot(cells[k], color);
+    }
+
+    private void plot(int packed, int color) {
+      pixels[(Cell.y(packed) / block) * image.getWidth() + Cell.x(packed) / block] = color;
+    }
+
+    void paint(Graphics g, int x, int y, int originX, int originY, int cols, int rows) {
+      g.drawImage(image, x, y, null);
+      g.setColor(Color.DARK_GRAY);
+      g.drawRect(x, y, image.getWidth(), image.getHeight());
+      // Ventana visible de la cámara
+      g.setColor(Color.RED);
+      g.drawRect(x + originX / block, y + originY / block, Math.max(1, cols / block), Math.max(1, rows / block));
     }
   }
 
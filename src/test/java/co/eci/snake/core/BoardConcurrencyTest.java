@@ -0,0 +1,86 @@
+package co.eci.snake.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.RepeatedTest;
+
+/**
+ * Muchas serpientes moviéndose a la vez en un tablero pequeño, para forzar
+ * reclamos de la misma celda (CAS en commit), colas liberadas que otra serpiente
+ * reclama enseguida y reabastecimientos en celdas recién liberadas. En reposo
+ * cada celda tiene a lo sumo un dueño, la grilla coincide con los cuerpos y el
+ * índice de celdas libres con la grilla y los ítems.
+ */
+class BoardConcurrencyTest {
+  private static final int THREADS = 8;
+  private static final int SNAKES = 96;
+  private static final int STEPS = 20_000;
+  private static final Direction[] DIRECTIONS = Direction.values();
+
+  @RepeatedTest(20)
+  void contendedStepsKeepOwnershipAndFreeIndexConsistent() throws Exception {
+    var board = new Board(32, 32, 11L);
+    var rnd = new SplittableRandom(11);
+    List<Snake> snakes = new ArrayList<>();
+    for (int k = 0; k < SNAKES; k++) {
+      Position p = board.randomEmpty();
+      var snake = Snake.of(p.x(), p.y(), DIRECTIONS[rnd.nextInt(DIRECTIONS.length)]);
+      board.register(snake);
+      snakes.add(snake);
+    }
+
+    // Cada hilo mueve solo sus serpientes (índice módulo THREADS), como un
+    // ejecutor real; las celdas sí se disputan entre hilos
+    var start = new CountDownLatch(1);
+    try (var pool = Executors.newFixedThreadPool(THREADS)) {
+      var futures = new ArrayList<Future<?>>();
+      for (int t = 0; t < THREADS; t++) {
+        int first = t;
+        futures.add(pool.submit(() -> {
+          var r = new SplittableRandom(first);
+          start.await();
+          for (int n = 0; n < STEPS; n++) {
+            Snake snake = snakes.get(first + THREADS * r.nextInt(SNAKES / THREADS));
+            if (r.nextInt(4) == 0)
+              snake.turn(DIRECTIONS[r.nextInt(DIRECTIONS.length)]);
+            board.step(snake, snakes);
+          }
+          return null;
+        }));
+      }
+      start.countDown();
+      for (var f : futures)
+        f.get();
+    }
+
+    int width = board.width(), cells = width * board.height();
+    int[] owner = new int[cells];
+    int[] body = new int[cells];
+    for (Snake snake : snakes) {
+      int n = snake.copyBody(body);
+      for (int k = 0; k < n; k++) {
+        int i = Cell.y(body[k]) * width + Cell.x(body[k]);
+        assertEquals(0, owner[i], "cell " + i + " is in two bodies");
+        owner[i] = snake.id();
+      }
+    }
+    var free = board.freeCells();
+    int expectedFree = 0;
+    for (int i = 0; i < cells; i++) {
+      assertEquals(owner[i], board.occupant(i % width, i / width), "occupancy of cell " + i);
+      boolean empty = owner[i] == 0 && !board.hasItem(i);
+      assertEquals(empty, free.contains(i), "free index entry of cell " + i + " (owner " + owner[i]
+          + ", item " + board.hasItem(i) + ")");
+      if (empty)
+        expectedFree++;
+    }
+    assertEquals(expectedFree, free.size());
+  }
+}
@@ -0,0 +1,103 @@
+package co.eci.snake.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Anillo de ChangeLog con varios productores y un consumidor concurrente. Cada
+ * productor emite su propio contador (sujeto = productor, celda = contador), así
+ * el consumidor puede verificar el orden y detectar eventos repetidos, perdidos
+ * sin aviso o a medio escribir.
+ */
+class ChangeLogTest {
+  private static final int PRODUCERS = 4;
+  private static final int EVENTS = 200_000;
+
+  @Test
+  void consumerWithRoomSeesEveryEventInOrder() throws Exception {
+    var log = new ChangeLog(PRODUCERS * EVENTS);
+    var cursor = log.cursor();
+    int[] next = new int[PRODUCERS];
+    long[] batch = new long[256];
+    try (var pool = Executors.newFixedThreadPool(PRODUCERS)) {
+      var producers = start(pool, log);
+      long total = (long) PRODUCERS * EVENTS, seen = 0;
+      while (seen < total) {
+        int n = log.read(cursor, batch);
+        assertNotEquals(ChangeLog.LOST, n, "events lost with room to spare");
+        for (int k = 0; k < n; k++) {
+          int producer = ChangeLog.subject(batch[k]);
+          assertEquals(ChangeLog.Type.HEAD_PUSHED, ChangeLog.type(batch[k]));
+          assertEquals(next[producer]++, ChangeLog.cell(batch[k]), "event of producer " + producer);
+        }
+        seen += n;
+        if (n == 0)
+          Thread.onSpinWait();
+      }
+      for (var f : producers)
+        f.get();
+    }
+    assertEquals(0, log.read(cursor, batch));
+    assertEquals(0, cursor.lost());
+  }
+
+  @Test
+  void slowConsumerIsToldItLostEventsAndNeverReadsTornOnes() throws Exception {
+    var log = new ChangeLog(4);
+    var cursor = log.cursor();
+    int[] last = new int[PRODUCERS];
+    Arrays.fill(last, -1);
+    long[] batch = new long[16];
+    try (var pool = Executors.newFixedThreadPool(PRODUCERS)) {
+      var producers = start(pool, log);
+      // Tras terminar los productores se lee hasta vaciar el anillo
+      while (true) {
+        boolean finished = producers.stream().allMatch(Future::isDone);
+        int n = log.read(cursor, batch);
+        if (finished && n == 0)
+          break;
+        for (int k = 0; k < n; k++) {
+          int producer = ChangeLog.subject(batch[k]);
+          int counter = ChangeLog.cell(batch[k]);
+          assertEquals(ChangeLog.Type.HEAD_PUSHED, ChangeLog.type(batch[k]));
+          assertTrue(producer < PRODUCERS, "unknown producer " + producer);
+          // Puede saltarse eventos tras un LOST, pero nunca repetir ni retroceder
+          assertTrue(counter > last[producer] && counter < EVENTS,
+              "producer " + producer + " went from " + last[producer] + " to " + counter);
+          last[producer] = counter;
+        }
+      }
+      for (var f : producers)
+        f.get();
+    }
+    assertEquals((long) PRODUCERS * EVENTS, log.head());
+    assertTrue(cursor.lost() > 0, "a 4-slot ring should overflow");
+  }
+
+  private static List<Future<?>> start(ExecutorService pool, ChangeLog log) {
+    var go = new CountDownLatch(1);
+    var futures = new ArrayList<Future<?>>();
+    for (int p = 0; p < PRODUCERS; p++) {
+      int producer = p;
+      futures.add(pool.submit(() -> {
+        go.await();
+        for (int c = 0; c < EVENTS; c++)
+          log.emit(ChangeLog.encode(ChangeLog.Type.HEAD_PUSHED, producer, c));
+        return null;
+      }));
+    }
+    go.countDown();
+    return futures;
+  }
+}
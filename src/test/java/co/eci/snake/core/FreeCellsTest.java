@@ -0,0 +1,98 @@
+package co.eci.snake.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+/**
+ * Índice de celdas libres: un índice nuevo (arreglos en cero, decodificados con
+ * el truco del XOR) tiene todas las celdas, y bajo concurrencia take() nunca
+ * entrega la misma celda a dos hilos ni pierde o duplica entradas.
+ */
+class FreeCellsTest {
+  private static final int CELLS = 10_000;
+  private static final int THREADS = 8;
+  private static final int ROUNDS = 50_000;
+
+  @ParameterizedTest
+  @EnumSource(Board.Storage.class)
+  void newAndClearedIndexHoldsEveryCell(Board.Storage storage) {
+    var free = new FreeCells(CELLS, storage);
+    assertAllFree(free);
+    var rnd = new SplittableRandom(3);
+    for (int k = 0; k < CELLS / 2; k++)
+      free.remove(rnd.nextInt(CELLS));
+    free.clear();
+    assertAllFree(free);
+  }
+
+  @ParameterizedTest
+  @EnumSource(Board.Storage.class)
+  void concurrentTakesNeverHandOutACellTwice(Board.Storage storage) throws Exception {
+    var free = new FreeCells(CELLS, storage);
+    // Dueño de cada celda fuera del índice (0 = en el índice)
+    var held = new AtomicIntegerArray(CELLS);
+    var start = new CountDownLatch(1);
+    var futures = new ArrayList<Future<int[]>>();
+    try (var pool = Executors.newFixedThreadPool(THREADS)) {
+      for (int t = 1; t <= THREADS; t++) {
+        int me = t;
+        futures.add(pool.submit(() -> {
+          var rnd = new SplittableRandom(me);
+          int[] mine = new int[64];
+          int count = 0;
+          start.await();
+          for (int n = 0; n < ROUNDS; n++) {
+            if (count < mine.length && rnd.nextBoolean()) {
+              int i = free.take(rnd);
+              if (i >= 0) {
+                assertTrue(held.compareAndSet(i, 0, me), "cell " + i + " handed out twice");
+                mine[count++] = i;
+              }
+            } else if (count > 0) {
+              // Se suelta antes de devolverla: después otro hilo puede tomarla
+              int k = rnd.nextInt(count);
+              int i = mine[k];
+              mine[k] = mine[--count];
+              held.set(i, 0);
+              free.add(i);
+            }
+            int s = free.sample(rnd);
+            assertTrue(s >= 0 && s < CELLS, "sample out of range: " + s);
+          }
+          return Arrays.copyOf(mine, count);
+        }));
+      }
+      start.countDown();
+      int kept = 0;
+      for (var f : futures)
+        kept += f.get().length;
+
+      int expected = 0;
+      for (int i = 0; i < CELLS; i++) {
+        boolean inIndex = held.get(i) == 0;
+        assertEquals(inIndex, free.contains(i), "index entry of cell " + i);
+        if (inIndex)
+          expected++;
+      }
+      assertEquals(CELLS - kept, expected);
+      assertEquals(expected, free.size());
+    }
+  }
+
+  private static void assertAllFree(FreeCells free) {
+    assertEquals(CELLS, free.size());
+    for (int i = 0; i < CELLS; i++)
+      assertTrue(free.contains(i), "cell " + i + " missing");
+  }
+}
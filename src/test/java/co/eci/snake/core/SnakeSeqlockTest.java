@@ -0,0 +1,81 @@
+package co.eci.snake.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Seqlock del cuerpo: un escritor avanza la serpiente por una secuencia conocida
+ * de celdas (creciendo a ratos, así el buffer circular se duplica y da la vuelta)
+ * mientras varios lectores copian el cuerpo sin bloquear. Cada copia debe ser un
+ * estado real: celdas consecutivas de la secuencia, de la cabeza a la cola.
+ */
+class SnakeSeqlockTest {
+  private static final int STEPS = 200_000;
+  private static final int READERS = 4;
+  // Ancho de la secuencia: la celda t es (t % SPAN, t / SPAN)
+  private static final int SPAN = 50_000;
+
+  @Test
+  void copyBodyNeverReturnsATornBody() throws Exception {
+    var snake = Snake.of(0, 0, Direction.RIGHT);
+    var done = new CountDownLatch(1);
+    var futures = new ArrayList<Future<Integer>>();
+    try (var pool = Executors.newFixedThreadPool(READERS + 1)) {
+      for (int r = 0; r < READERS; r++) {
+        futures.add(pool.submit(() -> {
+          int[] body = new int[16];
+          int reads = 0;
+          while (done.getCount() > 0 || reads == 0) {
+            int n = snake.copyBody(body);
+            if (n > body.length) {
+              body = new int[Integer.highestOneBit(n) << 1];
+              continue;
+            }
+            assertConsecutive(body, n);
+            reads++;
+          }
+          return reads;
+        }));
+      }
+      var writer = pool.submit(() -> {
+        for (int t = 1; t <= STEPS; t++)
+          snake.advance(cell(t), t % 3 == 0);
+        done.countDown();
+        return null;
+      });
+      writer.get();
+      for (var f : futures)
+        assertTrue(f.get() > 0);
+    }
+    int[] body = new int[snake.getLength()];
+    assertEquals(body.length, snake.copyBody(body));
+    assertEquals(cell(STEPS), body[0]);
+    assertConsecutive(body, body.length);
+  }
+
+  private static int cell(int t) {
+    return Cell.pack(t % SPAN, t / SPAN);
+  }
+
+  private static int sequence(int cell) {
+    return Cell.y(cell) * SPAN + Cell.x(cell);
+  }
+
+  private static void assertConsecutive(int[] body, int n) {
+    assertTrue(n >= 1, "empty body");
+    int head = sequence(body[0]);
+    for (int k = 1; k < n; k++) {
+      if (sequence(body[k]) != head - k)
+        throw new AssertionError("torn body of length " + n + " at segment " + k + ": "
+            + Arrays.toString(Arrays.copyOf(body, Math.min(n, 8))));
+    }
+  }
+}